@@ -26,16 +26,32 @@ package org.biouno.unochoice;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
 import org.biouno.unochoice.model.Script;
+import org.biouno.unochoice.util.ScriptExecutor;
+import org.biouno.unochoice.util.Utils;
+import org.kohsuke.stapler.Stapler;
+import org.kohsuke.stapler.StaplerRequest2;
 import org.kohsuke.stapler.bind.JavaScriptMethod;
 import org.kohsuke.stapler.json.JsonHttpResponse;
 
 import hudson.Util;
+import hudson.model.Job;
+import hudson.model.ParameterDefinition;
+import hudson.model.ParameterValue;
+import hudson.model.StringParameterValue;
 
 /**
  * Base class for cascadable parameters, providing basic and utility methods.
@@ -49,16 +65,28 @@ public abstract class AbstractCascadableParameter extends AbstractScriptablePara
      * Serial UID. 
      */
     private static final long serialVersionUID = 3795727126307053346L;
+    /**
+     * Prefix of the request attributes that hold the values sent by {@link #doUpdate(String)}.
+     */
+    private static final String PARAMETERS_ATTRIBUTE_PREFIX = AbstractCascadableParameter.class.getName() + ".parameters.";
     /**
      * Map with parameters in the UI.
+     * @deprecated shared by every user of the parameter definition, and no longer read nor written by this class.
+     * The values of the referenced parameters are now passed explicitly (see {@link #evaluateChoicesForUI(String)}).
+     * Still an empty map, so that older job configurations can be read, and subclasses using it keep working.
      */
-    // Map is not serializable, but LinkedHashMap is. Ignore static analysis errors
-    protected final Map<Object, Object> parameters = new LinkedHashMap<>();
+    @Deprecated
+    protected Map<Object, Object> parameters = new LinkedHashMap<>();
 
     /**
      * Referenced parameters.
      */
     private final String referencedParameters;
+    /**
+     * Values sent by {@link #doUpdate(String)} outside of a web request, per thread. Bound to this definition, so
+     * that they are released together with it, and never set on the threads of the {@link ScriptExecutor}.
+     */
+    private transient volatile ThreadLocal<Map<Object, Object>> localParameters;
 
     /**
      * Create a new abstract cascadable parameter.
@@ -97,36 +125,234 @@ public abstract class AbstractCascadableParameter extends AbstractScriptablePara
         return referencedParameters;
     }
 
-    /*
-     * (non-Javadoc)
-     * @see org.biouno.unochoice.AbstractScriptableParameter#getParameters()
+    /**
+     * Never leaves the deprecated {@link #parameters} map {@code null}, e.g. for configurations saved without it.
+     *
+     * @return this object
+     */
+    @Override
+    @SuppressWarnings("deprecation")
+    protected Object readResolve() {
+        if (parameters == null) {
+            parameters = new LinkedHashMap<>();
+        }
+        return super.readResolve();
+    }
+
+    /**
+     * Gets the values of the referenced parameters sent by the last {@link #doUpdate(String)}. Within a web request,
+     * they only last for that request: nothing is kept for the user between requests, the UI passes the values
+     * explicitly instead. Outside of a web request, they are kept for the current thread until replaced by an empty
+     * update; evaluations run by the {@link ScriptExecutor} never see them, and must be given their values
+     * explicitly.
+     *
+     * @return the values of the referenced parameters
      */
     @Override
     public Map<Object, Object> getParameters() {
-        return parameters;
+        final String key = String.valueOf(getRandomName());
+        final StaplerRequest2 request = Stapler.getCurrentRequest2();
+        Map<Object, Object> current = null;
+        if (request == null) {
+            if (!ScriptExecutor.isExecutorThread()) {
+                current = getLocalParameters().get();
+            }
+        } else {
+            @SuppressWarnings("unchecked")
+            final Map<Object, Object> requestParameters = (Map<Object, Object>) request.getAttribute(PARAMETERS_ATTRIBUTE_PREFIX + key);
+            current = requestParameters;
+        }
+        return current != null ? current : new LinkedHashMap<>();
+    }
+
+    /**
+     * Replaces the values of the referenced parameters, in the same scope used by {@link #getParameters()}.
+     * Maps are never modified once stored.
+     *
+     * @param values the values of the referenced parameters
+     */
+    private void setParameters(Map<Object, Object> values) {
+        final String key = String.valueOf(getRandomName());
+        final StaplerRequest2 request = Stapler.getCurrentRequest2();
+        if (request == null) {
+            if (ScriptExecutor.isExecutorThread()) {
+                // pooled threads run unrelated evaluations next, these get their values explicitly
+                return;
+            }
+            if (values.isEmpty()) {
+                getLocalParameters().remove();
+            } else {
+                getLocalParameters().set(values);
+            }
+        } else {
+            request.setAttribute(PARAMETERS_ATTRIBUTE_PREFIX + key, values);
+        }
+    }
+
+    private ThreadLocal<Map<Object, Object>> getLocalParameters() {
+        ThreadLocal<Map<Object, Object>> local = localParameters;
+        if (local == null) {
+            synchronized (this) {
+                local = localParameters;
+                if (local == null) {
+                    local = new ThreadLocal<>();
+                    localParameters = local;
+                }
+            }
+        }
+        return local;
+    }
+
+    /**
+     * Resolves the values the referenced parameters have when the page is first rendered, so that the page is
+     * rendered with the choices the UI would otherwise request right after loading it. These are the default
+     * values of the referenced parameters and, for referenced cascadable parameters, the value they select once
+     * rendered with their own initial values.
+     *
+     * @return the initial values of the referenced parameters, or the values of {@link #getParameters()} when some
+     * of them cannot be resolved on the server
+     */
+    @Override
+    Map<Object, Object> getInitialParameters() {
+        final Map<Object, Object> initialParameters = resolveInitialParameters(new HashSet<>(Set.of(getName())));
+        return initialParameters != null ? initialParameters : getParameters();
+    }
+
+    /**
+     * Gets the values of the referenced parameters the page was rendered with, in the format sent by the UI. When
+     * they match the values found in the page, the UI does not need to update this parameter after loading it.
+     *
+     * @return name=value pairs separated by {@link #SEPARATOR}, or an empty string when the initial values cannot
+     * be resolved on the server
+     * @since 2.8.10
+     */
+    public String getInitialParametersForUI() {
+        final Map<Object, Object> initialParameters = resolveInitialParameters(new HashSet<>(Set.of(getName())));
+        if (initialParameters == null) {
+            return "";
+        }
+        return initialParameters.entrySet().stream()
+                .map(parameter -> parameter.getKey() + EQUALS + parameter.getValue())
+                .collect(Collectors.joining(SEPARATOR));
+    }
+
+    /**
+     * @param visiting names of the cascadable parameters being resolved, to stop at parameters referencing each other
+     * @return the initial values of the referenced parameters, or {@code null} if some cannot be resolved
+     */
+    private Map<Object, Object> resolveInitialParameters(Set<String> visiting) {
+        final Job<?, ?> job = resolveJob();
+        if (job == null) {
+            return null;
+        }
+        final Map<String, ParameterDefinition> definitions = new HashMap<>();
+        for (ParameterDefinition definition : Utils.getJobParameterDefinitions(job)) {
+            definitions.put(definition.getName(), definition);
+        }
+        final Map<Object, Object> initialParameters = new LinkedHashMap<>();
+        // the same names the UI sends
+        for (String name : Objects.toString(getReferencedParameters(), "").split(",")) {
+            final String value = resolveInitialValue(definitions.get(name.trim()), visiting);
+            if (value == null) {
+                return null;
+            }
+            initialParameters.put(name.trim(), value);
+        }
+        return initialParameters;
+    }
+
+    /**
+     * @return the value the given parameter has when the page is first rendered, or {@code null} if unknown
+     */
+    private static String resolveInitialValue(ParameterDefinition definition, Set<String> visiting) {
+        if (definition instanceof AbstractCascadableParameter) {
+            final AbstractCascadableParameter cascadable = (AbstractCascadableParameter) definition;
+            if (!visiting.add(cascadable.getName())) {
+                return null;
+            }
+            try {
+                final Map<Object, Object> inputs = cascadable.resolveInitialParameters(visiting);
+                if (inputs == null) {
+                    return null;
+                }
+                // evaluated once per request, and shared with the rendering of that parameter
+                return cascadable.getValueForUI(cascadable.evaluateForUI(inputs), null);
+            } finally {
+                visiting.remove(cascadable.getName());
+            }
+        }
+        if (definition != null) {
+            // other values (e.g. passwords, files) are not rendered as text, only the UI knows about them
+            final ParameterValue value = definition.getDefaultParameterValue();
+            if (value instanceof StringParameterValue) {
+                return Objects.toString(((StringParameterValue) value).getValue(), "");
+            }
+        }
+        return null;
     }
 
     // --- methods called from the UI
 
+    /**
+     * Gets the URL at which the UI calls the methods of this parameter (see {@link ActiveChoicesAction}).
+     *
+     * @return the URL relative to the context path, or {@code null} if the parameter is not part of the current
+     * configuration of its job, in which case the UI binds it to the session instead
+     * @since 2.8.10
+     */
+    public String getProxyUrl() {
+        if (StringUtils.isBlank(getRandomName())) {
+            return null;
+        }
+        final Job<?, ?> job = resolveJob();
+        return job != null ? ActiveChoicesAction.getUrl(job, this) : null;
+    }
+
+    /**
+     * Gets the methods the UI may call on this parameter at its {@link #getProxyUrl() URL}.
+     *
+     * @return the method names, separated by commas
+     * @since 2.8.10
+     */
+    public String getProxyMethods() {
+        return String.join(",", ActiveChoicesAction.getMethods(getClass()));
+    }
+
     /*
      * (non-Javadoc)
+     * Kept for compatibility, the UI now calls evaluateChoicesForUI(String) instead.
      * @see org.biouno.unochoice.CascadableParameter#doUpdate(java.lang.String)
      */
     @Override
     @JavaScriptMethod
     public void doUpdate(String parameters) {
-        getParameters().clear();
+        setParameters(parseParameters(parameters));
+        throw new JsonHttpResponse(null);
+    }
+
+    /**
+     * Parses the values of the referenced parameters, as sent by the UI.
+     *
+     * @param parameters name=value pairs, separated by {@link #SEPARATOR}
+     * @return map with the parameter names and values
+     * @since 2.8.10
+     */
+    protected static Map<Object, Object> parseParameters(String parameters) {
+        final Map<Object, Object> result = new LinkedHashMap<>();
+        if (parameters == null) {
+            return result;
+        }
         final String[] params = parameters.split(SEPARATOR);
         for (String param : params) {
             final String[] nameValue = param.split(EQUALS);
             if (nameValue.length == 1) {
                 final String name = nameValue[0].trim();
                 if (!name.isEmpty())
-                    getParameters().put(name, "");
+                    result.put(name, "");
             } else if (nameValue.length == 2) {
                 final String name = nameValue[0];
                 final String value = nameValue[1];
-                getParameters().put(name, value);
+                result.put(name, value);
             } else if (nameValue.length > 2) {
                 // TBD: we can eliminate this branch by splitting only on the first EQUALS
                 final String name = nameValue[0];
@@ -139,10 +365,123 @@ public abstract class AbstractCascadableParameter extends AbstractScriptablePara
                     }
                 }
                 final String value = sb.toString();
-                getParameters().put(name, value);
+                result.put(name, value);
             }
         }
-        throw new JsonHttpResponse(null);
+        return result;
+    }
+
+    /**
+     * Evaluates the script with the given values of the referenced parameters, and returns the choices
+     * in the same format as {@link #getChoicesForUI()}. Nothing is stored in this parameter definition,
+     * so the UI gets the choices in a single call, instead of calling {@link #doUpdate(String)} first.
+     *
+     * @param parameters name=value pairs of the referenced parameters, separated by {@link #SEPARATOR}
+     * @return a list with the choice values, and the choice keys
+     * @since 2.8.10
+     */
+    @JavaScriptMethod
+    public List<Object> evaluateChoicesForUI(String parameters) {
+        final Map<Object, Object> mapResult = toPage(getChoices(parseParameters(parameters)));
+        return Arrays.asList(mapResult.values(), mapResult.keySet());
+    }
+
+    /**
+     * Evaluates this parameter, and every parameter of the same job that depends on it (directly or not), with
+     * the given values of the form parameters. Parameters are evaluated in dependency order, and independent
+     * parameters in parallel, so the UI can update a whole cascade with a single call.
+     *
+     * @param parameters name=value pairs of the form parameters, separated by {@link #SEPARATOR}
+     * @return a list of [name, result] pairs in evaluation order, where result has the same format as
+     * {@link #evaluateChoicesForUI(String)}, or as a string for parameters rendered as text
+     * @since 2.8.10
+     */
+    @JavaScriptMethod
+    public List<Object> evaluateCascadeForUI(String parameters) {
+        final Map<String, Object> results = new CascadeEvaluator(this).evaluate(parseParameters(parameters));
+        final List<Object> response = new ArrayList<>(results.size());
+        for (Map.Entry<String, Object> result : results.entrySet()) {
+            response.add(Arrays.asList(result.getKey(), result.getValue()));
+        }
+        return response;
+    }
+
+    /**
+     * Evaluates the given parameters of the same job, and every parameter that depends on them, with the given
+     * values of the form parameters. Each parameter is evaluated once, even when it depends on several of the given
+     * parameters, so the UI can update every parameter affected by a change with a single call.
+     *
+     * @param names comma separated names of the parameters whose referenced values changed
+     * @param parameters name=value pairs of the form parameters, separated by {@link #SEPARATOR}
+     * @return a list of [name, result] pairs in evaluation order, as in {@link #evaluateCascadeForUI(String)}
+     * @since 2.8.10
+     */
+    @JavaScriptMethod
+    public List<Object> evaluateCascadesForUI(String names, String parameters) {
+        final Set<String> roots = new LinkedHashSet<>();
+        for (String name : Objects.toString(names, "").split(",")) {
+            if (!name.trim().isEmpty()) {
+                roots.add(name.trim());
+            }
+        }
+        final Map<String, Object> results = new CascadeEvaluator(this, roots).evaluate(parseParameters(parameters));
+        final List<Object> response = new ArrayList<>(results.size());
+        for (Map.Entry<String, Object> result : results.entrySet()) {
+            response.add(Arrays.asList(result.getKey(), result.getValue()));
+        }
+        return response;
+    }
+
+    /**
+     * Evaluates the script with the given values of the referenced parameters, and returns the result in the
+     * format expected by the UI.
+     *
+     * @param parameters values of the referenced parameters
+     * @return a list with the choice values and keys, as in {@link #getChoicesForUI()}
+     */
+    Object evaluateForUI(Map<Object, Object> parameters) {
+        return toUI(toPage(getChoices(parameters)));
+    }
+
+    /**
+     * Evaluates the fallback script with the given values of the referenced parameters, and returns the result
+     * in the format expected by the UI.
+     *
+     * @param parameters values of the referenced parameters
+     * @return a list with the choice values and keys, as in {@link #getChoicesForUI()}
+     */
+    Object evaluateFallbackForUI(Map<Object, Object> parameters) {
+        final Map<Object, Object> choices = toChoices(evaluateFallback(parameters));
+        return toUI(choices != null ? toPage(choices) : Collections.emptyMap());
+    }
+
+    /**
+     * Gets the value the UI selects once the given result is rendered, used as the input of the parameters that
+     * reference this one.
+     *
+     * @param result the result returned by {@link #evaluateForUI(Map)}
+     * @param previousValue the value of this parameter before its evaluation
+     * @return the new value of this parameter
+     */
+    @SuppressWarnings("unchecked")
+    String getValueForUI(Object result, String previousValue) {
+        final List<Collection<Object>> list = (List<Collection<Object>>) result;
+        final List<Object> values = new ArrayList<>(list.get(0));
+        final List<Object> keys = new ArrayList<>(list.get(1));
+        final Map<Object, Object> choices = new LinkedHashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            choices.put(keys.get(i), values.get(i));
+        }
+        if (!PARAMETER_TYPE_SINGLE_SELECT.equals(getChoiceType())
+                && choices.values().stream().noneMatch(Utils::isSelected)) {
+            // only single selects fall back to their first element, other types start with no selection
+            return "";
+        }
+        return Objects.toString(findDefaultValue(choices), "");
+    }
+
+    private static List<Object> toUI(Map<Object, Object> choices) {
+        return Arrays.asList(choices.values(), choices.keySet());
     }
 
     /*
@@ -24,6 +24,7 @@
 
 package org.biouno.unochoice;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
@@ -31,24 +32,46 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 
 import org.apache.commons.lang3.StringUtils;
 import org.biouno.unochoice.model.Script;
-import org.biouno.unochoice.util.ScriptCallback;
+import org.biouno.unochoice.util.Cancellation;
+import org.biouno.unochoice.util.ChoicesIndex;
+import org.biouno.unochoice.util.CircuitBreaker;
+import org.biouno.unochoice.util.EvaluationKey;
+import org.biouno.unochoice.util.GlobalNodeProperties;
+import org.biouno.unochoice.util.RequestMemo;
+import org.biouno.unochoice.util.ScriptExecutor;
+import org.biouno.unochoice.util.ScriptParameters;
+import org.biouno.unochoice.util.ScriptResultCache;
+import org.biouno.unochoice.util.SharedEvaluation;
+import org.biouno.unochoice.util.SingleFlight;
 import org.biouno.unochoice.util.Utils;
 import org.kohsuke.stapler.Ancestor;
 import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.Stapler;
 import org.kohsuke.stapler.StaplerRequest2;
 
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.model.AbstractItem;
+import hudson.model.Api;
 import hudson.model.Job;
 import hudson.model.ParameterValue;
-import hudson.model.Project;
 import hudson.model.Run;
 import hudson.model.StringParameterValue;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
 import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
 
 /**
  * Base class for parameters with scripts.
@@ -83,6 +106,18 @@ public abstract class AbstractScriptableParameter extends AbstractUnoChoiceParam
      * Constant used to add the parameter name in the environment variables map.
      */
     protected static final String JENKINS_PARAMETER_VARIABLE_NAME = "jenkinsParameter";
+    /**
+     * Whether requests to the REST API are served the last computed default value, instead of running the
+     * script. The value is refreshed in the background. Disabled by default.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "non-final for the script console")
+    public static /* non-final */ boolean NON_BLOCKING_API = SystemProperties.getBoolean(
+            AbstractScriptableParameter.class.getName() + ".nonBlockingApi", false);
+    /**
+     * Age, in seconds, after which the default value served to the REST API is refreshed in the background.
+     */
+    static final int API_DEFAULT_VALUE_TTL = SystemProperties.getInteger(
+            AbstractScriptableParameter.class.getName() + ".apiDefaultValueTtl", 60);
     /**
      * Number of visible items on the screen.
      */
@@ -107,17 +142,51 @@ public abstract class AbstractScriptableParameter extends AbstractUnoChoiceParam
      * Cached project full name resolved after construction, used to avoid repeated project scans.
      */
     private volatile String projectFullNameCache;
+    /**
+     * The job resolved by the last evaluation, re-used while it is still the job with that full name.
+     */
+    private transient volatile WeakReference<Job<?, ?>> jobCache;
+    /**
+     * The last computed default value, served to the REST API, and to builds when
+     * {@link #getCacheDefaultValue()} is {@code true}.
+     */
+    private transient volatile DefaultValueCache.Entry defaultValueEntry;
+    /**
+     * Sends evaluations straight to the fallback script while the script keeps failing.
+     */
+    private transient volatile CircuitBreaker circuitBreaker;
     /**
      * Whether the default parameter value may be cached (JENKINS-76298). Disabled by default,
-     * as the cached value is persisted with the job configuration and would shadow values
-     * produced by scripts that generate choices dynamically.
+     * as the cached value would shadow values produced by scripts that generate choices
+     * dynamically until it is invalidated (see {@link DefaultValueCache}).
      */
     private Boolean cacheDefaultValue;
     /**
-     * A cache for the default parameter value to avoid JENKINS-76298. Only used when
-     * {@link #getCacheDefaultValue()} is {@code true}.
+     * Default parameter value that used to be persisted with the job configuration. Only read from
+     * old configurations, and discarded.
+     */
+    @Deprecated
+    private transient String cachedDefaultValue;
+    /**
+     * Timeout for the script evaluation, in seconds. When {@code null}, the global default
+     * {@link ScriptExecutor#DEFAULT_TIMEOUT} is used.
+     */
+    private Integer evaluationTimeout;
+    /**
+     * Time-to-live, in seconds, of the script results cached for each combination of referenced parameter
+     * values. When {@code null}, results are not cached.
+     */
+    private Integer choicesCacheTtl;
+    /**
+     * Interval, in seconds, at which the script is evaluated in the background by the {@link ChoicesRefresher}.
+     * When {@code null}, the parameter is not refreshed.
+     */
+    private Integer refreshInterval;
+    /**
+     * Number of choices sent to the UI at a time, for filterable select parameters that are searched on the server.
+     * When {@code null}, every choice is sent, and filtered in the UI.
      */
-    private String cachedDefaultValue;
+    private Integer filterPageSize;
 
     /**
      * Inherited constructor.
@@ -172,6 +241,24 @@ public abstract class AbstractScriptableParameter extends AbstractUnoChoiceParam
         }
     }
 
+    /**
+     * @return the job resolved by a previous evaluation, if it is still the job with that full name and
+     * is visible to the current user, {@code null} otherwise
+     */
+    private Job<?, ?> getCachedJob() {
+        final WeakReference<Job<?, ?>> reference = jobCache;
+        final Job<?, ?> job = reference != null ? reference.get() : null;
+        if (job == null) {
+            return null;
+        }
+        // a map lookup per folder level, that also checks the job was not renamed, moved, deleted, or hidden
+        if (Jenkins.get().getItemByFullName(job.getFullName(), Job.class) != job) {
+            jobCache = null;
+            return null;
+        }
+        return job;
+    }
+
     protected AbstractItem detectProject() {
         final StaplerRequest2 currentRequest = Stapler.getCurrentRequest2();
         if (currentRequest != null) {
@@ -212,9 +299,139 @@ public abstract class AbstractScriptableParameter extends AbstractUnoChoiceParam
     @DataBoundSetter
     public void setCacheDefaultValue(Boolean cacheDefaultValue) {
         this.cacheDefaultValue = cacheDefaultValue;
-        if (!getCacheDefaultValue()) {
-            this.cachedDefaultValue = null;
+    }
+
+    /**
+     * Discards the default value persisted by older versions, as it was never invalidated.
+     *
+     * @return this object
+     */
+    @SuppressWarnings("deprecation")
+    protected Object readResolve() {
+        cachedDefaultValue = null;
+        return this;
+    }
+
+    /**
+     * Gets the timeout for the script evaluation.
+     *
+     * @return timeout in seconds, or {@code null} to use the global default
+     */
+    public Integer getEvaluationTimeout() {
+        return evaluationTimeout;
+    }
+
+    /**
+     * Sets the timeout for the script evaluation. Once it expires, the evaluation is interrupted and
+     * the fallback script is used instead. Zero disables the timeout.
+     *
+     * @param evaluationTimeout timeout in seconds, or {@code null} to use the global default
+     */
+    @DataBoundSetter
+    public void setEvaluationTimeout(Integer evaluationTimeout) {
+        this.evaluationTimeout = (evaluationTimeout == null || evaluationTimeout < 0) ? null : evaluationTimeout;
+    }
+
+    /**
+     * @return the timeout in seconds to be used when evaluating the script of this parameter
+     */
+    protected int getEffectiveEvaluationTimeout() {
+        return evaluationTimeout != null ? evaluationTimeout : ScriptExecutor.DEFAULT_TIMEOUT;
+    }
+
+    /**
+     * Gets the time-to-live of the cached script results.
+     *
+     * @return time-to-live in seconds, or {@code null} if results are not cached
+     */
+    public Integer getChoicesCacheTtl() {
+        return choicesCacheTtl;
+    }
+
+    /**
+     * Sets the time-to-live of the cached script results. Results are cached per combination of referenced
+     * parameter values. Once expired, the previous result is still returned while it is refreshed in the
+     * background.
+     *
+     * @param choicesCacheTtl time-to-live in seconds, {@code null} or zero to disable the cache
+     */
+    @DataBoundSetter
+    public void setChoicesCacheTtl(Integer choicesCacheTtl) {
+        this.choicesCacheTtl = (choicesCacheTtl == null || choicesCacheTtl <= 0) ? null : choicesCacheTtl;
+    }
+
+    /**
+     * Gets the interval at which the script is evaluated in the background.
+     *
+     * @return interval in seconds, or {@code null} if the parameter is not refreshed in the background
+     */
+    public Integer getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    /**
+     * Sets the interval at which the script is evaluated in the background, without referenced parameter
+     * values. The page is then rendered with the last result, instead of running the script.
+     *
+     * @param refreshInterval interval in seconds, {@code null} or zero to disable the background refresh
+     */
+    @DataBoundSetter
+    public void setRefreshInterval(Integer refreshInterval) {
+        this.refreshInterval = (refreshInterval == null || refreshInterval <= 0) ? null : refreshInterval;
+    }
+
+    /**
+     * Gets the number of choices sent to the UI at a time.
+     *
+     * @return page size, or {@code null} if every choice is sent
+     */
+    public Integer getFilterPageSize() {
+        return filterPageSize;
+    }
+
+    /**
+     * Sets the number of choices sent to the UI at a time. Only the first page of choices is rendered, and the
+     * filter box searches the other choices on the server. Only used by filterable select parameters.
+     *
+     * @param filterPageSize page size, {@code null} or zero to send every choice
+     */
+    @DataBoundSetter
+    public void setFilterPageSize(Integer filterPageSize) {
+        this.filterPageSize = (filterPageSize == null || filterPageSize <= 0) ? null : filterPageSize;
+    }
+
+    /**
+     * Get the filter flag.
+     * @return filter flag, only choice parameters can be filtered
+     */
+    public boolean getFilterable() {
+        return false;
+    }
+
+    /**
+     * @return {@code true} if only a page of choices is sent to the UI, and the other choices are searched on the
+     *     server (see {@link #searchChoices(Map, String, ChoicesIndex.Mode, int, int)})
+     * @since 2.8.10
+     */
+    public boolean isPaged() {
+        return filterPageSize != null && getFilterable()
+                && (PARAMETER_TYPE_SINGLE_SELECT.equals(getChoiceType())
+                        || PARAMETER_TYPE_MULTI_SELECT.equals(getChoiceType()));
+    }
+
+    /**
+     * Gets the URL at which the UI searches the choices of this parameter (see {@link ActiveChoicesAction}).
+     *
+     * @return the URL relative to the context path, or {@code null} if the parameter is not {@link #isPaged()
+     *     paged}, or not part of the current configuration of its job
+     * @since 2.8.10
+     */
+    public String getSearchUrl() {
+        if (!isPaged() || StringUtils.isBlank(getRandomName())) {
+            return null;
         }
+        final Job<?, ?> job = resolveJob();
+        return job != null ? ActiveChoicesAction.getSearchUrl(job, this) : null;
     }
 
     /**
@@ -228,23 +445,97 @@ public abstract class AbstractScriptableParameter extends AbstractUnoChoiceParam
     }
 
     /**
-     * Helper parameters used to render the parameter definition.
+     * Gets the values of the referenced parameters the page is first rendered with.
+     *
+     * @return the initial values of the referenced parameters
+     */
+    Map<Object, Object> getInitialParameters() {
+        return getParameters();
+    }
+
+    /**
+     * Helper parameters used to render the parameter definition. The job, its last build and the global node
+     * properties are only looked up if the script reads them.
      * @return Map with helper parameters
      */
-    private Map<Object, Object> getHelperParameters() {
+    private ScriptParameters getHelperParameters(AtomicBoolean jobVariablesRead) {
         // map with parameters
-        final Map<Object, Object> helperParameters = new LinkedHashMap<>();
+        final ScriptParameters helperParameters = new ScriptParameters();
+
+        // Here we inject the global node properties, which take precedence over the other helper parameters
+        helperParameters.addLazyVariables(GlobalNodeProperties::get);
+
+        // Here we set the parameter name
+        helperParameters.addLazyVariable(JENKINS_PARAMETER_VARIABLE_NAME, tracked(() -> this, jobVariablesRead));
+
+        // the request is not available to the thread running the script, so detect its project now
+        final AbstractItem requestItem = detectProject();
+        final Supplier<Job<?, ?>> project = memoize(() -> resolveJob(requestItem));
+        helperParameters.addLazyVariable(JENKINS_PROJECT_VARIABLE_NAME, tracked(project, jobVariablesRead));
+        helperParameters.addLazyVariable(JENKINS_BUILD_VARIABLE_NAME, tracked(() -> {
+            final Job<?, ?> job = project.get();
+            if (job == null) {
+                return null;
+            }
+            // may load the build from disk, and list its artifacts directory
+            final Run<?, ?> build = job.getLastBuild();
+            return build != null && build.getHasArtifacts() ? build : null;
+        }, jobVariablesRead));
+        return helperParameters;
+    }
+
+    /**
+     * @return a supplier that records it was called in the given flag, before calling the given supplier
+     */
+    private static <T> Supplier<T> tracked(Supplier<T> supplier, AtomicBoolean called) {
+        return () -> {
+            called.set(true);
+            return supplier.get();
+        };
+    }
+
+    private static <T> Supplier<T> memoize(Supplier<T> supplier) {
+        final AtomicReference<Optional<T>> value = new AtomicReference<>();
+        return () -> {
+            Optional<T> result = value.get();
+            if (result == null) {
+                result = Optional.ofNullable(supplier.get());
+                value.compareAndSet(null, result);
+            }
+            return result.orElse(null);
+        };
+    }
+
+    /**
+     * Resolves the job that defines this parameter.
+     *
+     * @return the job, or {@code null} if it cannot be found or is not visible to the current user
+     */
+    Job<?, ?> resolveJob() {
+        return resolveJob(null);
+    }
 
-        // First, if the project name is set, we then find the project by its name, and inject into the map
-        Job<?, ?> project = null;
+    /**
+     * Resolves the job that defines this parameter.
+     *
+     * @param requestItem the item of the current request, if already detected
+     * @return the job, or {@code null} if it cannot be found or is not visible to the current user
+     */
+    private Job<?, ?> resolveJob(AbstractItem requestItem) {
+        // First, re-use the job resolved by a previous evaluation, if still valid
+        Job<?, ?> project = getCachedJob();
         final String resolvedProjectFullName = StringUtils.defaultIfBlank(this.projectFullNameCache, this.projectFullName);
         final String resolvedProjectName = StringUtils.defaultIfBlank(this.projectNameCache, this.projectName);
-        if (StringUtils.isNotBlank(resolvedProjectFullName)) {
+        if (project != null) {
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.fine(String.format("Using cached job '%s' for parameter '%s'", project.getFullName(), getName()));
+            }
+        } else if (StringUtils.isNotBlank(resolvedProjectFullName)) {
             if (LOGGER.isLoggable(Level.FINE)) {
                 LOGGER.fine(String.format("Attempting project resolution by full name '%s' for parameter '%s'", resolvedProjectFullName, getName()));
             }
             // First try full name if exists
-            project = Jenkins.get().getItemByFullName(resolvedProjectFullName, Project.class);
+            project = Jenkins.get().getItemByFullName(resolvedProjectFullName, Job.class);
             if (project != null) {
                 if (LOGGER.isLoggable(Level.FINE)) {
                     LOGGER.fine(String.format("Resolved project by full name '%s' for parameter '%s'", resolvedProjectFullName, getName()));
@@ -269,7 +560,7 @@ public abstract class AbstractScriptableParameter extends AbstractUnoChoiceParam
             }
             // check whether the current thread has enough info to detect project
             // i.e. it serves a web request to the project build page
-            final AbstractItem parentItem = detectProject();
+            final AbstractItem parentItem = requestItem != null ? requestItem : detectProject();
             if (parentItem != null) {
                 project = Jenkins.get().getItemByFullName(parentItem.getFullName(), Job.class);
                 if (LOGGER.isLoggable(Level.FINE)) {
@@ -283,7 +574,7 @@ public abstract class AbstractScriptableParameter extends AbstractUnoChoiceParam
         // Last chance, if we were unable to get project from name and full name, try uuid
         if (project == null) {
             // otherwise, in case we don't have the item name, we iterate looking for a job that uses this UUID
-            project = Utils.findProjectByParameterUUID(this.getRandomName());
+            project = Utils.findJobByParameterUUID(this.getRandomName());
             if (project != null) {
                 if (LOGGER.isLoggable(Level.FINE)) {
                     LOGGER.fine(String.format("Resolved project by parameter UUID '%s' for parameter '%s'", this.getRandomName(), getName()));
@@ -292,20 +583,9 @@ public abstract class AbstractScriptableParameter extends AbstractUnoChoiceParam
             }
         }
         if (project != null) {
-            helperParameters.put(JENKINS_PROJECT_VARIABLE_NAME, project);
-            Run<?, ?> build = project.getLastBuild();
-            if (build != null && build.getHasArtifacts()) {
-                helperParameters.put(JENKINS_BUILD_VARIABLE_NAME, build);
-            }
+            jobCache = new WeakReference<>(project);
         }
-
-        // Here we set the parameter name
-        helperParameters.put(JENKINS_PARAMETER_VARIABLE_NAME, this);
-
-        // Here we inject the global node properties
-        final Map<String, Object> globalNodeProperties = Utils.getGlobalNodeProperties();
-        helperParameters.putAll(globalNodeProperties);
-        return helperParameters;
+        return project;
     }
 
     public Map<Object, Object> getChoices() {
@@ -314,39 +594,146 @@ public abstract class AbstractScriptableParameter extends AbstractUnoChoiceParam
         return choices;
     }
 
+    /**
+     * Gets the choices rendered when the page is first displayed.
+     *
+     * @return the choices, evaluated with the initial values of the referenced parameters
+     * @since 2.8.10
+     */
+    public Map<Object, Object> getInitialChoices() {
+        PreEvaluator.preEvaluate(this);
+        return getChoices(getInitialParameters());
+    }
+
+    /**
+     * Gets the choices rendered in a select when the page is first displayed. Only the first page of choices if
+     * the parameter is {@link #isPaged() paged}.
+     *
+     * @return the choices, evaluated with the initial values of the referenced parameters
+     * @since 2.8.10
+     */
+    public Map<Object, Object> getInitialChoicesPage() {
+        return toPage(getInitialChoices());
+    }
+
+    /**
+     * Gets the first page of the given choices, if the parameter is {@link #isPaged() paged} and its choices can be
+     * searched. Selected choices are always kept, so that the default selection does not depend on the page size.
+     *
+     * @param choices the choices
+     * @return the first page of choices, plus the selected choices
+     */
+    Map<Object, Object> toPage(Map<Object, Object> choices) {
+        final Integer pageSize = filterPageSize;
+        if (pageSize == null || choices.size() <= pageSize || getSearchUrl() == null) {
+            return choices;
+        }
+        final Map<Object, Object> page = new LinkedHashMap<>();
+        for (Map.Entry<Object, Object> choice : choices.entrySet()) {
+            if (page.size() < pageSize || Utils.isSelected(choice.getValue())) {
+                page.put(choice.getKey(), choice.getValue());
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Searches the choices evaluated with the given values of the referenced parameters. The choices are indexed
+     * once per result (see {@link ChoicesIndex}), so searching them again, e.g. while typing in the filter box, does
+     * not evaluate the script. When the script fails, the choices of its fallback are searched instead, and are not
+     * indexed.
+     *
+     * @param parameters values of the referenced parameters
+     * @param query text searched in the labels of the choices
+     * @param mode how the query is matched
+     * @param offset number of matches to skip
+     * @param limit maximum number of matches returned
+     * @return the requested page of matches
+     * @since 2.8.10
+     */
+    public ChoicesIndex.Page searchChoices(Map<Object, Object> parameters, String query, ChoicesIndex.Mode mode,
+            int offset, int limit) {
+        final EvaluationKey key = newEvaluationKey(parameters);
+        ChoicesIndex index;
+        try {
+            // only the choices of the script are indexed, failures are evaluated again by the next search
+            index = ChoicesIndex.get(key, choicesCacheTtl, () -> toChoicesOrEmpty(load(key, parameters)));
+        } catch (FallbackException e) {
+            index = new ChoicesIndex(toChoicesOrEmpty(evalFallback(getScriptParameters(parameters), e.getCause())));
+        } catch (TimeoutException | RejectedExecutionException e) {
+            LOGGER.log(Level.WARNING, String.format("Script for parameter '%s' did not complete in time (%s), searching "
+                    + "its fallback instead", getName(), e.getClass().getSimpleName()));
+            index = new ChoicesIndex(toChoicesOrEmpty(evalFallback(getScriptParameters(parameters), null)));
+        } catch (CancellationException e) {
+            LOGGER.log(Level.FINE, String.format("Search of parameter '%s' cancelled", getName()));
+            index = new ChoicesIndex(Collections.emptyMap());
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, String.format("Error searching the choices of parameter '%s'", getName()), e);
+            index = new ChoicesIndex(Collections.emptyMap());
+        }
+        return index.search(query, mode, offset, limit);
+    }
+
+    private Map<Object, Object> toChoicesOrEmpty(Object value) {
+        final Map<Object, Object> choices = toChoices(value);
+        return choices != null ? choices : Collections.emptyMap();
+    }
+
     /*
      * (non-Javadoc)
      * @see org.biouno.unochoice.ScriptableParameter#getChoices(java.util.Map)
      */
     @Override
-    @SuppressWarnings("unchecked") // due to Web + Java and scripts integration
     public Map<Object, Object> getChoices(Map<Object, Object> parameters) {
-        final Object value = eval(parameters);
-        if (value instanceof Map) {
-            Map<Object, Object> map = (Map<Object, Object>) value;
+        final Map<Object, Object> map = toChoices(eval(parameters));
+        if (map != null) {
             visibleItemCount = map.size();
             return map;
         }
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Converts the value returned by a script into choices.
+     *
+     * @param value value returned by the script
+     * @return the choices, or {@code null} if the value is not a {@link Map} nor a {@link List}
+     */
+    @SuppressWarnings("unchecked") // due to Web + Java and scripts integration
+    Map<Object, Object> toChoices(Object value) {
+        if (value instanceof Map) {
+            return (Map<Object, Object>) value;
+        }
         if (value instanceof List) {
             // here we take a list and return it as a map
             final Map<Object, Object> map = new LinkedHashMap<>();
             for (Object o : (List<Object>) value) {
                 map.put(o, o);
             }
-            visibleItemCount = map.size();
             return map;
         }
         if (LOGGER.isLoggable(Level.FINE)) {
             LOGGER.fine(String.format("Script parameter with name '%s' is not an instance of java.util.Map. The "
                     + "parameter value is %s", getName(), value));
         }
-        return Collections.emptyMap();
+        return null;
     }
 
     public String getChoicesAsString() {
         return getChoicesAsString(getParameters());
     }
 
+    /**
+     * Gets the value rendered when the page is first displayed.
+     *
+     * @return the value returned by the script, evaluated with the initial values of the referenced parameters
+     * @since 2.8.10
+     */
+    public String getInitialChoicesAsString() {
+        PreEvaluator.preEvaluate(this);
+        return getChoicesAsString(getInitialParameters());
+    }
+
     public String getChoicesAsString(Map<Object, Object> parameters) {
         final Object value = eval(parameters);
         if (value != null)
@@ -354,19 +741,299 @@ public abstract class AbstractScriptableParameter extends AbstractUnoChoiceParam
         return "";
     }
 
-    @SuppressWarnings({ "rawtypes", "unchecked" })
     private Object eval(Map<Object, Object> parameters) {
         try {
-            Map<Object, Object> scriptParameters = getHelperParameters();
-            scriptParameters.putAll(parameters);
-            final ScriptCallback<Exception> callback = new ScriptCallback(getName(), script, scriptParameters);
-            return callback.call();
+            final EvaluationKey key = newEvaluationKey(parameters);
+            // the views of a page read the choices several times, evaluate them only once per request
+            return RequestMemo.get(key, () -> loadOrFallback(key, parameters));
+        } catch (TimeoutException | RejectedExecutionException e) {
+            LOGGER.log(Level.WARNING, String.format("Script for parameter '%s' did not complete in time (%s), using "
+                    + "its fallback instead", getName(), e.getClass().getSimpleName()));
+            return evalFallback(getScriptParameters(parameters), null);
+        } catch (CancellationException e) {
+            // superseded by a newer request of the UI, the value will not be displayed
+            LOGGER.log(Level.FINE, String.format("Evaluation of parameter '%s' cancelled", getName()));
+            return Collections.emptyMap();
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error executing script for dynamic parameter", e);
             return Collections.emptyMap();
         }
     }
 
+    /**
+     * Gets the value returned by the script, or by its fallback if the script failed. The value of the fallback is
+     * not cached, so that the script is tried again by the next evaluation.
+     *
+     * @param key identifies the evaluation
+     * @param parameters values of the referenced parameters
+     * @return the value returned by the script or its fallback
+     * @throws Exception if the script does not complete in time
+     */
+    private Object loadOrFallback(EvaluationKey key, Map<Object, Object> parameters) throws Exception {
+        try {
+            return load(key, parameters);
+        } catch (FallbackException e) {
+            return evalFallback(getScriptParameters(parameters), e.getCause());
+        }
+    }
+
+    /**
+     * Gets the value returned by the script, from the caches when possible.
+     *
+     * @param key identifies the evaluation
+     * @param parameters values of the referenced parameters
+     * @return the value returned by the script
+     * @throws FallbackException if the script failed, and its fallback must be used instead
+     * @throws Exception if the script does not complete in time
+     */
+    private Object load(EvaluationKey key, Map<Object, Object> parameters) throws Exception {
+        // concurrent evaluations with the same inputs share a single run of the script
+        final Callable<Object> loader = () -> SingleFlight.INSTANCE.call(key, () -> evaluateScript(parameters));
+        if (refreshInterval != null && parameters.isEmpty()) {
+            // kept up to date by the ChoicesRefresher, for every user
+            final Object refreshed = ScriptResultCache.INSTANCE.getIfPresent(getRefreshedKey());
+            if (refreshed != null) {
+                return refreshed;
+            }
+        }
+        if (SharedEvaluation.isShareable(key.getScriptFingerprint())) {
+            return evalShared(parameters, loader);
+        }
+        final Integer ttl = choicesCacheTtl;
+        if (ttl == null) {
+            return loader.call();
+        }
+        return ScriptResultCache.INSTANCE.get(key, ttl * 1000L, loader);
+    }
+
+    /**
+     * Starts evaluating the choices rendered when the page is first displayed on the {@link ScriptExecutor}, to be
+     * picked up when the parameter is rendered later in the same request.
+     */
+    void preEvaluate() {
+        final Map<Object, Object> parameters = getInitialParameters();
+        final EvaluationKey key = newEvaluationKey(parameters);
+        RequestMemo.prefetch(key, () -> loadOrFallback(key, parameters), getEffectiveEvaluationTimeout());
+    }
+
+    /**
+     * Evaluates the script with a key shared by the parameters of every job with the same script. When the script
+     * turns out to read job specific variables, its result is only used by the parameter that ran it, and the
+     * other parameters evaluate it on their own.
+     *
+     * @param parameters values of the referenced parameters
+     * @param loader evaluates the script for this parameter only
+     * @return the value returned by the script
+     * @throws FallbackException if the script failed, and its fallback must be used instead
+     * @throws Exception if the script does not complete in time
+     */
+    private Object evalShared(Map<Object, Object> parameters, Callable<Object> loader) throws Exception {
+        final EvaluationKey sharedKey = new EvaluationKey(null, script, parameters);
+        final Object shared = ScriptResultCache.INSTANCE.getIfFresh(sharedKey);
+        if (shared != null) {
+            return shared;
+        }
+        final AtomicBoolean ran = new AtomicBoolean();
+        final SharedEvaluation.Result result = (SharedEvaluation.Result) SingleFlight.INSTANCE.call(sharedKey, () -> {
+            ran.set(true);
+            final AtomicBoolean jobVariablesRead = new AtomicBoolean();
+            final Object value = evaluateScript(parameters, jobVariablesRead);
+            if (jobVariablesRead.get()) {
+                SharedEvaluation.markJobSpecific(sharedKey.getScriptFingerprint());
+            } else {
+                ScriptResultCache.INSTANCE.put(sharedKey, value, SharedEvaluation.WINDOW * 1000L);
+            }
+            return new SharedEvaluation.Result(value, jobVariablesRead.get());
+        });
+        if (result.isJobSpecific() && !ran.get()) {
+            return loader.call();
+        }
+        return result.getValue();
+    }
+
+    /**
+     * Evaluates the script without referenced parameter values, as when the page is first rendered, and stores
+     * its result to be served by the following evaluations. Called by the {@link ChoicesRefresher}.
+     *
+     * @throws Exception if the script fails, or does not complete in time
+     */
+    void refreshChoices() throws Exception {
+        final Integer interval = refreshInterval;
+        if (interval == null) {
+            return;
+        }
+        final Map<Object, Object> parameters = Collections.emptyMap();
+        final EvaluationKey key = getRefreshedKey();
+        final Object value = SingleFlight.INSTANCE.call(key, () -> evaluateScript(parameters));
+        ScriptResultCache.INSTANCE.put(key, value, interval * 1000L);
+        // served from the result stored above
+        getDefaultValueEntry().set(computeDefaultValue());
+    }
+
+    /**
+     * @return the key of the result of the {@link ChoicesRefresher}, served to every user
+     */
+    private EvaluationKey getRefreshedKey() {
+        return new EvaluationKey(getRandomName(), getJobFullName(), script, Collections.emptyMap(), null);
+    }
+
+    /**
+     * @param parameters values of the referenced parameters
+     * @return the key of an evaluation of this parameter by the current user
+     */
+    private EvaluationKey newEvaluationKey(Map<Object, Object> parameters) {
+        return new EvaluationKey(getRandomName(), getJobFullName(), script, parameters);
+    }
+
+    /**
+     * Gets the full name of the job of this parameter, that is part of its evaluation keys. Copied jobs keep the
+     * random names of their parameters, and must not be served results computed with another job.
+     *
+     * @return the job the script is given as {@value #JENKINS_PROJECT_VARIABLE_NAME}, or {@code null} if unknown
+     */
+    private String getJobFullName() {
+        // the same name for every user, whether or not they can see the job, as the key is already per user
+        try (ACLContext ignored = ACL.as2(ACL.SYSTEM2)) {
+            final Job<?, ?> job = resolveJob(detectProject());
+            return job != null ? job.getFullName() : null;
+        }
+    }
+
+    /**
+     * Evaluates the script of this parameter on the {@link ScriptExecutor}. When the script failed or timed out
+     * repeatedly, it is skipped until the {@link CircuitBreaker} lets a probe call through.
+     *
+     * @param parameters values of the referenced parameters
+     * @return the value returned by the script
+     * @throws FallbackException if the script failed or was skipped, and its fallback must be used instead
+     * @throws Exception if the script does not complete in time
+     */
+    private Object evaluateScript(Map<Object, Object> parameters) throws Exception {
+        return evaluateScript(parameters, new AtomicBoolean());
+    }
+
+    /**
+     * Evaluates the script of this parameter, recording whether it read job specific variables.
+     *
+     * @param parameters values of the referenced parameters
+     * @param jobVariablesRead set if the script read jenkinsProject, jenkinsBuild or jenkinsParameter
+     * @return the value returned by the script
+     * @throws FallbackException if the script failed or was skipped, and its fallback must be used instead
+     * @throws Exception if the script does not complete in time
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private Object evaluateScript(Map<Object, Object> parameters, AtomicBoolean jobVariablesRead) throws Exception {
+        final Map<Object, Object> scriptParameters = getScriptParameters(parameters, jobVariablesRead);
+        final CircuitBreaker breaker = getCircuitBreaker();
+        if (!breaker.allowRequest()) {
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.fine(String.format("Script for parameter '%s' failed repeatedly, using its fallback", getName()));
+            }
+            throw new FallbackException(null);
+        }
+        final Object value;
+        try {
+            value = ScriptExecutor.INSTANCE.call(() -> script.evalPrimary((Map) scriptParameters),
+                    getEffectiveEvaluationTimeout());
+        } catch (RejectedExecutionException | CancellationException e) {
+            breaker.onIgnored();
+            throw e;
+        } catch (TimeoutException e) {
+            breaker.onFailure();
+            throw e;
+        } catch (Exception e) {
+            if (Cancellation.isCurrentCancelled()) {
+                // the script failed because it was interrupted
+                breaker.onIgnored();
+                throw new CancellationException("Evaluation cancelled");
+            }
+            breaker.onFailure();
+            throw new FallbackException(e);
+        } catch (Error e) {
+            // e.g. a failed assertion of a script called on this thread, the executor reports it as an exception
+            breaker.onFailure();
+            throw new FallbackException(e);
+        }
+        breaker.onSuccess();
+        return value;
+    }
+
+    private CircuitBreaker getCircuitBreaker() {
+        CircuitBreaker breaker = circuitBreaker;
+        if (breaker == null) {
+            synchronized (this) {
+                breaker = circuitBreaker;
+                if (breaker == null) {
+                    breaker = new CircuitBreaker();
+                    circuitBreaker = breaker;
+                }
+            }
+        }
+        return breaker;
+    }
+
+    private Map<Object, Object> getScriptParameters(Map<Object, Object> parameters) {
+        return getScriptParameters(parameters, new AtomicBoolean());
+    }
+
+    private Map<Object, Object> getScriptParameters(Map<Object, Object> parameters, AtomicBoolean jobVariablesRead) {
+        final ScriptParameters scriptParameters = getHelperParameters(jobVariablesRead);
+        scriptParameters.putAll(parameters);
+        return scriptParameters;
+    }
+
+    /**
+     * Evaluates the fallback script of this parameter.
+     *
+     * @param parameters values of the referenced parameters
+     * @return the value returned by the fallback script, or an empty map
+     */
+    Object evaluateFallback(Map<Object, Object> parameters) {
+        return evalFallback(getScriptParameters(parameters), null);
+    }
+
+    /**
+     * Evaluates the fallback script with the given binding, on the {@link ScriptExecutor} and with the same
+     * timeout as the script.
+     *
+     * @param scriptParameters binding of the script
+     * @param failure the failure of the script, if any, logged when there is no fallback
+     * @return the value returned by the fallback script, or an empty map
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private Object evalFallback(Map<Object, Object> scriptParameters, Throwable failure) {
+        try {
+            if (failure != null) {
+                LOGGER.log(Level.FINEST, "Fallback to default script...", failure);
+            }
+            final Callable<Object> fallback = () -> script.evalFallback((Map) scriptParameters);
+            Object value;
+            try {
+                value = ScriptExecutor.INSTANCE.call(fallback, getEffectiveEvaluationTimeout());
+            } catch (RejectedExecutionException e) {
+                // executor busy, fallback scripts are expected to be quick
+                value = fallback.call();
+            }
+            if (value != null) {
+                return value;
+            }
+            if (failure != null) {
+                LOGGER.log(Level.SEVERE, "Error executing script for dynamic parameter", failure);
+            }
+            return Collections.emptyMap();
+        } catch (TimeoutException e) {
+            LOGGER.log(Level.WARNING, String.format("Fallback script for parameter '%s' did not complete in time",
+                    getName()));
+            return Collections.emptyMap();
+        } catch (CancellationException e) {
+            LOGGER.log(Level.FINE, String.format("Evaluation of parameter '%s' cancelled", getName()));
+            return Collections.emptyMap();
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error executing fallback script for dynamic parameter", e);
+            return Collections.emptyMap();
+        }
+    }
+
     /*
      * (non-Javadoc)
      * @see hudson.model.ParameterDefinition#getDefaultParameterValue()
@@ -377,16 +1044,99 @@ public abstract class AbstractScriptableParameter extends AbstractUnoChoiceParam
             LOGGER.entering(AbstractUnoChoiceParameter.class.getName(), "getDefaultParameterValue");
         }
         final String name = getName();
-        if (getCacheDefaultValue() && cachedDefaultValue != null) {
-            return new StringParameterValue(name, cachedDefaultValue);
+        if (NON_BLOCKING_API && isApiRequest()) {
+            return getLastDefaultParameterValue();
+        }
+        final DefaultValueCache.Entry entry = getDefaultValueEntry();
+        if (getCacheDefaultValue()) {
+            final String cached = entry.getIfFresh(DefaultValueCache.TTL * 1000L);
+            if (cached != null) {
+                return new StringParameterValue(name, cached);
+            }
         }
-        String defaultValue = findDefaultValue(getChoices(Collections.emptyMap()));
-        final String value = Objects.toString(defaultValue, ""); // Jenkins doesn't like null parameter values
-        cachedDefaultValue = getCacheDefaultValue() ? value : null;
+        final String value = computeSharedDefaultValue();
+        entry.set(value);
         return new StringParameterValue(name, value);
     }
 
-    private static String findDefaultValue(Map<Object, Object> choices) {
+    /**
+     * Evaluates the script to compute the default value of this parameter.
+     *
+     * @return the default value, never {@code null} as Jenkins doesn't like null parameter values
+     */
+    protected String computeDefaultValue() {
+        final String defaultValue = findDefaultValue(getChoices(Collections.emptyMap()));
+        return Objects.toString(defaultValue, "");
+    }
+
+    /**
+     * Computes the default value. Outside of web requests, e.g. while builds triggered together by an upstream
+     * job are queued, evaluations are shared with the parameters of other jobs that have the same script.
+     *
+     * @return the default value
+     */
+    private String computeSharedDefaultValue() {
+        if (Stapler.getCurrentRequest2() != null) {
+            return computeDefaultValue();
+        }
+        return SharedEvaluation.call(this::computeDefaultValue);
+    }
+
+    /**
+     * Returns the last computed default value without running the script, and refreshes it in the background
+     * when it is older than {@link #API_DEFAULT_VALUE_TTL}. When it was never computed, it is computed now.
+     *
+     * @return the last computed default value
+     */
+    ParameterValue getLastDefaultParameterValue() {
+        final DefaultValueCache.Entry last = getDefaultValueEntry();
+        if (last.get() == null) {
+            final String value = computeSharedDefaultValue();
+            last.set(value);
+            return new StringParameterValue(getName(), value);
+        }
+        if (last.isOlderThan(API_DEFAULT_VALUE_TTL * 1000L) && last.startRefresh()) {
+            try {
+                ScriptExecutor.INSTANCE.submitDetached(() -> {
+                    try {
+                        last.set(computeSharedDefaultValue());
+                    } finally {
+                        last.endRefresh();
+                    }
+                    return null;
+                });
+            } catch (RejectedExecutionException e) {
+                last.endRefresh();
+                LOGGER.log(Level.FINE, String.format("Could not refresh the default value of parameter '%s'", getName()), e);
+            }
+        }
+        final String value = last.get();
+        return value != null ? new StringParameterValue(getName(), value) : null;
+    }
+
+    DefaultValueCache.Entry getDefaultValueEntry() {
+        DefaultValueCache.Entry entry = defaultValueEntry;
+        if (entry == null) {
+            synchronized (this) {
+                entry = defaultValueEntry;
+                if (entry == null) {
+                    entry = new DefaultValueCache.Entry();
+                    defaultValueEntry = entry;
+                }
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * @return {@code true} if the current thread serves a request to the REST API, e.g. {@code /job/x/api/json}
+     */
+    private static boolean isApiRequest() {
+        final StaplerRequest2 currentRequest = Stapler.getCurrentRequest2();
+        return currentRequest != null && currentRequest.findAncestor(Api.class) != null;
+    }
+
+    static String findDefaultValue(Map<Object, Object> choices) {
         if (choices == null || choices.isEmpty()) {
             return null;
         }
@@ -413,6 +1163,19 @@ public abstract class AbstractScriptableParameter extends AbstractUnoChoiceParam
         return defaultValuesText.substring(1);
     }
 
+    /**
+     * Thrown when the script of a parameter failed, or was skipped by its {@link CircuitBreaker}. The fallback is
+     * then evaluated by the caller, outside of the caches, so that its value is not cached in place of the value of
+     * the script.
+     */
+    private static final class FallbackException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        FallbackException(Throwable cause) {
+            super(cause != null ? "Script failed" : "Script skipped after repeated failures", cause);
+        }
+    }
+
     // --- type types
 
     /**
@@ -424,14 +1187,24 @@ public abstract class AbstractScriptableParameter extends AbstractUnoChoiceParam
         if (LOGGER.isLoggable(Level.FINE)) {
             LOGGER.entering(AbstractUnoChoiceParameter.class.getName(), "getVisibleItemCount");
         }
-        if (visibleItemCount <= 0)
-            visibleItemCount = 1;
-        return Math.min(visibleItemCount, DEFAULT_MAX_VISIBLE_ITEM_COUNT);
+        return Math.min(getItemCount(), DEFAULT_MAX_VISIBLE_ITEM_COUNT);
     }
 
     public int getItemCount() {
-        if (visibleItemCount <= 0)
-            visibleItemCount = 1;
+        final int itemCount = countChoices();
+        return itemCount <= 0 ? 1 : itemCount;
+    }
+
+    /**
+     * Counts the choices rendered in the current request. Outside of a request, or before the choices are
+     * rendered, this is the number of choices of the last evaluation.
+     */
+    private int countChoices() {
+        final Map<Object, Object> parameters = getInitialParameters();
+        if (RequestMemo.contains(newEvaluationKey(parameters))) {
+            // memoized, the script is not evaluated again
+            return getChoices(parameters).size();
+        }
         return visibleItemCount;
     }
 }
@@ -0,0 +1,513 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.biouno.unochoice.util.Cancellation;
+import org.biouno.unochoice.util.ChoicesIndex;
+import org.biouno.unochoice.util.InFlightEvaluations;
+import org.biouno.unochoice.util.ScriptExecutor;
+import org.biouno.unochoice.util.Utils;
+import org.kohsuke.stapler.StaplerRequest2;
+import org.kohsuke.stapler.StaplerResponse2;
+import org.kohsuke.stapler.bind.JavaScriptMethod;
+import org.kohsuke.stapler.interceptor.RequirePOST;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.Util;
+import hudson.model.Action;
+import hudson.model.InvisibleAction;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.ParameterDefinition;
+import jakarta.servlet.http.HttpServletResponse;
+import jenkins.model.Jenkins;
+import jenkins.model.TransientActionFactory;
+import jenkins.util.SystemProperties;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import net.sf.json.util.JSONUtils;
+
+/**
+ * <p>Makes the cascadable parameters of a job addressable by URL, at
+ * {@code job/NAME/activeChoices/RANDOM_NAME/}, so that the UI can call their {@code @JavaScriptMethod}s.</p>
+ *
+ * <p>Unlike {@code <st:bind>}, which registers the parameter in the session of the user on every page view, this
+ * leaves nothing behind on the server. The parameter is looked up in the current configuration of the job each
+ * time it is called.</p>
+ *
+ * <p>Calls to several parameters of the job can also be sent in a single request to {@code job/NAME/activeChoices/batch}
+ * (see {@link #doBatch(StaplerRequest2, StaplerResponse2)}).</p>
+ *
+ * <p>The choices of the filterable parameters of the job can be searched at {@code job/NAME/activeChoices/search}
+ * (see {@link #doSearch(StaplerRequest2, StaplerResponse2)}).</p>
+ *
+ * <p>Batches sent by a page with a sequence number cancel the evaluations still running for the previous batches of
+ * the same page, as their results would be discarded (see {@link InFlightEvaluations}).</p>
+ *
+ * @since 2.8.10
+ */
+public final class ActiveChoicesAction extends InvisibleAction {
+
+    private static final Logger LOGGER = Logger.getLogger(ActiveChoicesAction.class.getName());
+
+    public static final String URL_NAME = "activeChoices";
+
+    /**
+     * Error returned for the calls of a batch that was superseded by a newer batch of the same page.
+     */
+    public static final String SUPERSEDED = "superseded";
+
+    /**
+     * Error returned for the calls of a batch beyond {@link #MAX_BATCH_SIZE}.
+     */
+    public static final String TOO_MANY_CALLS = "too many calls";
+
+    /**
+     * Error returned for the calls of a batch that failed. The details are only logged.
+     */
+    public static final String CALL_FAILED = "call failed";
+
+    /**
+     * Methods of the parameters that the UI calls, the only ones accepted in a batch. The proxies of the UI are
+     * created with the methods of this list that each parameter has (see {@link #getMethods(Class)}).
+     */
+    static final List<String> PARAMETER_METHODS = Collections.unmodifiableList(Arrays.asList("evaluateChoicesForUI",
+            "evaluateCascadeForUI", "evaluateCascadesForUI", "evaluateChoicesAsStringForUI"));
+
+    /**
+     * The {@link #PARAMETER_METHODS} of each parameter class, by name.
+     */
+    private static final ClassValue<Map<String, Method>> METHODS = new ClassValue<Map<String, Method>>() {
+        @Override
+        protected Map<String, Method> computeValue(Class<?> type) {
+            final Map<String, Method> methods = new LinkedHashMap<>();
+            for (Method method : type.getMethods()) {
+                if (PARAMETER_METHODS.contains(method.getName()) && method.isAnnotationPresent(JavaScriptMethod.class)
+                        && Arrays.stream(method.getParameterTypes()).allMatch(String.class::equals)) {
+                    methods.put(method.getName(), method);
+                }
+            }
+            return Collections.unmodifiableMap(methods);
+        }
+    };
+
+    /**
+     * Maximum number of calls evaluated per batch. The UI sends larger batches in several requests.
+     */
+    static final int MAX_BATCH_SIZE = SystemProperties.getInteger(ActiveChoicesAction.class.getName() + ".maxBatchSize", 50);
+
+    /**
+     * Maximum number of choices returned by a search.
+     */
+    static final int MAX_PAGE_SIZE = SystemProperties.getInteger(ActiveChoicesAction.class.getName() + ".maxPageSize", 1000);
+
+    private final Job<?, ?> job;
+
+    ActiveChoicesAction(Job<?, ?> job) {
+        this.job = job;
+    }
+
+    @Override
+    public String getUrlName() {
+        return URL_NAME;
+    }
+
+    /**
+     * Gets the cascadable parameter of the job with the given random name. Only users allowed to build the job
+     * can see its build form, and thus evaluate its parameters.
+     *
+     * @param randomName random name of the parameter
+     * @param req request
+     * @param rsp response
+     * @return the parameter, or {@code null} (not found) if the job has no such parameter
+     */
+    public AbstractCascadableParameter getDynamic(String randomName, StaplerRequest2 req, StaplerResponse2 rsp) {
+        job.checkPermission(Item.BUILD);
+        return findParameter(randomName);
+    }
+
+    /**
+     * <p>Calls the methods of several parameters of the job, and returns their results in a single response. The
+     * UI collects the calls made within the same animation frame, to save a request per call. The calls are
+     * evaluated in parallel on the {@link ScriptExecutor}, at most {@link #MAX_BATCH_SIZE} per batch; the calls
+     * beyond are answered with the {@value #TOO_MANY_CALLS} error.</p>
+     *
+     * <p>The request body is a JSON array of calls, each with the random name of the {@code parameter}, the name of
+     * the {@code method} (one of the {@link #PARAMETER_METHODS}) and its {@code args}. The response has the
+     * {@code results} of the calls in the same order, each with either the {@code value} returned by the method, or
+     * an {@code error}. Calls that failed are answered with the {@value #CALL_FAILED} error, and logged.</p>
+     *
+     * <p>When the {@code client} (a random identifier of the page) and {@code sequence} query parameters are given,
+     * a newer batch of the same page cancels this one. The calls that were not evaluated are then answered with
+     * the {@value #SUPERSEDED} error.</p>
+     *
+     * @param req request
+     * @param rsp response
+     * @throws IOException if the request cannot be read, or the response written
+     */
+    @RequirePOST
+    public void doBatch(StaplerRequest2 req, StaplerResponse2 rsp) throws IOException {
+        job.checkPermission(Item.BUILD);
+        final JSONArray calls = JSONArray.fromObject(IOUtils.toString(req.getReader()));
+        final String key = getClientKey(req);
+        final long sequence = NumberUtils.toLong(req.getParameter("sequence"), -1L);
+        final Cancellation cancellation = key != null && sequence >= 0
+                ? InFlightEvaluations.INSTANCE.start(key, sequence)
+                : new Cancellation();
+        final StringBuilder json = new StringBuilder("{\"results\":[");
+        try (Cancellation.Scope scope = cancellation != null ? cancellation.enter() : Cancellation.NO_SCOPE) {
+            // the calls do not depend on each other, evaluate them in parallel
+            final List<Future<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < Math.min(calls.size(), MAX_BATCH_SIZE) && cancellation != null; i++) {
+                futures.add(submit(calls.get(i)));
+            }
+            for (int i = 0; i < calls.size(); i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                final Object call = calls.get(i);
+                if (i >= MAX_BATCH_SIZE) {
+                    json.append("{\"error\":").append(JSONUtils.quote(TOO_MANY_CALLS)).append('}');
+                    continue;
+                }
+                if (cancellation == null || cancellation.isCancelled()) {
+                    json.append("{\"error\":").append(JSONUtils.quote(SUPERSEDED)).append('}');
+                    continue;
+                }
+                try {
+                    final Object value = await(call, futures.get(i));
+                    if (cancellation.isCancelled()) {
+                        // evaluated partially, not worth sending
+                        json.append("{\"error\":").append(JSONUtils.quote(SUPERSEDED)).append('}');
+                        continue;
+                    }
+                    json.append("{\"value\":");
+                    writeJson(value, json);
+                    json.append('}');
+                } catch (CancellationException e) {
+                    json.append("{\"error\":").append(JSONUtils.quote(SUPERSEDED)).append('}');
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.WARNING, String.format("Error in call %d of a batch of job %s: %s", i,
+                            job.getFullName(), call), e);
+                    json.append("{\"error\":").append(JSONUtils.quote(CALL_FAILED)).append('}');
+                }
+            }
+        } finally {
+            if (key != null && cancellation != null) {
+                InFlightEvaluations.INSTANCE.finish(key, cancellation);
+            }
+        }
+        json.append("]}");
+        rsp.setContentType("application/json;charset=UTF-8");
+        rsp.getWriter().write(json.toString());
+    }
+
+    /**
+     * Submits a call of a batch to the {@link ScriptExecutor}, along with the current {@link Cancellation}.
+     *
+     * @return the future of the call, or {@code null} if it must be called on this thread instead
+     */
+    private Future<Object> submit(Object call) {
+        try {
+            return ScriptExecutor.INSTANCE.submit(() -> invoke(call));
+        } catch (RejectedExecutionException e) {
+            // executor busy, call it on this thread instead
+            return null;
+        } catch (CancellationException e) {
+            // superseded in the meantime
+            return null;
+        }
+    }
+
+    /**
+     * Waits for the result of a call of a batch, or calls it on this thread if it was not submitted. The scripts
+     * evaluated by the call have their own timeout.
+     */
+    private Object await(Object call, Future<Object> future) {
+        if (future == null) {
+            return invoke(call);
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for the call");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * <p>Searches the choices of a parameter of the job, and returns a page of the matches.</p>
+     *
+     * <p>The request has the random name of the {@code parameter}, the {@code query}, the {@code mode} ({@code prefix},
+     * {@code substring} or {@code fuzzy}), the {@code offset} and {@code limit} of the page, and for cascade
+     * parameters the {@code parameters} values (name=value pairs separated by
+     * {@link AbstractCascadableParameter#SEPARATOR}). The response has the {@code total} number of matches, the
+     * {@code offset} of the page, and its {@code choices}, each with a {@code value}, a {@code label} and whether it
+     * is {@code disabled}.</p>
+     *
+     * @param req request
+     * @param rsp response
+     * @throws IOException if the response cannot be written
+     */
+    @RequirePOST
+    public void doSearch(StaplerRequest2 req, StaplerResponse2 rsp) throws IOException {
+        job.checkPermission(Item.BUILD);
+        final AbstractScriptableParameter parameter = findScriptableParameter(req.getParameter("parameter"));
+        if (parameter == null) {
+            rsp.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        final Map<Object, Object> parameters = parameter instanceof AbstractCascadableParameter
+                ? AbstractCascadableParameter.parseParameters(req.getParameter("parameters"))
+                : parameter.getInitialParameters();
+        final int pageSize = parameter.getFilterPageSize() != null ? parameter.getFilterPageSize() : MAX_PAGE_SIZE;
+        final int limit = Math.min(NumberUtils.toInt(req.getParameter("limit"), pageSize), MAX_PAGE_SIZE);
+        final ChoicesIndex.Page page = parameter.searchChoices(parameters, req.getParameter("query"),
+                ChoicesIndex.Mode.of(req.getParameter("mode")), NumberUtils.toInt(req.getParameter("offset"), 0), limit);
+
+        final List<Object> choices = new ArrayList<>(page.getChoices().size());
+        for (ChoicesIndex.Choice choice : page.getChoices()) {
+            final Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("value", choice.getValue());
+            entry.put("label", choice.getLabel());
+            entry.put("disabled", choice.isDisabled());
+            choices.add(entry);
+        }
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("total", page.getTotal());
+        result.put("offset", page.getOffset());
+        result.put("choices", choices);
+        final StringBuilder json = new StringBuilder();
+        writeJson(result, json);
+        rsp.setContentType("application/json;charset=UTF-8");
+        rsp.getWriter().write(json.toString());
+    }
+
+    /**
+     * Cancels the evaluations still running for the batches of a page, e.g. when the page is closed.
+     *
+     * @param req request, with the {@code client} identifier of the page
+     * @param rsp response
+     */
+    @RequirePOST
+    public void doCancel(StaplerRequest2 req, StaplerResponse2 rsp) {
+        job.checkPermission(Item.BUILD);
+        final String key = getClientKey(req);
+        if (key != null) {
+            InFlightEvaluations.INSTANCE.cancel(key);
+        }
+        rsp.setStatus(HttpServletResponse.SC_NO_CONTENT);
+    }
+
+    /**
+     * @return the key of the page sending the request, scoped to the job and the user, or {@code null} if the
+     *     request does not identify its page
+     */
+    private String getClientKey(StaplerRequest2 req) {
+        final String client = req.getParameter("client");
+        if (client == null || client.isEmpty()) {
+            return null;
+        }
+        return job.getFullName() + '/' + Jenkins.getAuthentication2().getName() + '/' + client;
+    }
+
+    /**
+     * Gets the methods of the given parameter class that the UI may call, in a batch or through its URL.
+     *
+     * @param type a parameter class
+     * @return the names of the {@link #PARAMETER_METHODS} of the class
+     */
+    static Collection<String> getMethods(Class<?> type) {
+        return METHODS.get(type).keySet();
+    }
+
+    /**
+     * Calls one of the {@link #PARAMETER_METHODS} of a parameter.
+     */
+    private Object invoke(Object call) {
+        if (!(call instanceof JSONObject)) {
+            throw new IllegalArgumentException("Not a call: " + call);
+        }
+        final JSONObject object = (JSONObject) call;
+        final AbstractCascadableParameter parameter = findParameter(object.optString("parameter"));
+        if (parameter == null) {
+            throw new IllegalArgumentException("No such parameter: " + object.optString("parameter"));
+        }
+        final Method method = METHODS.get(parameter.getClass()).get(object.optString("method"));
+        if (method == null) {
+            throw new IllegalArgumentException("No such method: " + object.optString("method"));
+        }
+        final JSONArray args = object.optJSONArray("args");
+        final Object[] arguments = new Object[method.getParameterCount()];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = args != null && i < args.size() ? args.getString(i) : null;
+        }
+        try {
+            return method.invoke(parameter, arguments);
+        } catch (InvocationTargetException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private AbstractScriptableParameter findScriptableParameter(String randomName) {
+        for (ParameterDefinition definition : Utils.getJobParameterDefinitions(job)) {
+            if (definition instanceof AbstractScriptableParameter && randomName != null
+                    && randomName.equals(((AbstractScriptableParameter) definition).getRandomName())) {
+                return (AbstractScriptableParameter) definition;
+            }
+        }
+        return null;
+    }
+
+    private AbstractCascadableParameter findParameter(String randomName) {
+        for (ParameterDefinition definition : Utils.getJobParameterDefinitions(job)) {
+            if (definition instanceof AbstractCascadableParameter
+                    && randomName.equals(((AbstractCascadableParameter) definition).getRandomName())) {
+                return (AbstractCascadableParameter) definition;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writes the values returned by the methods of the parameters (strings, numbers, collections and maps) as
+     * JSON. Strings are always written as strings, even when their content looks like JSON.
+     */
+    private static void writeJson(Object value, StringBuilder json) {
+        if (value == null) {
+            json.append("null");
+        } else if (value instanceof Boolean
+                || (value instanceof Number && Double.isFinite(((Number) value).doubleValue()))) {
+            json.append(value);
+        } else if (value instanceof Map) {
+            json.append('{');
+            final Iterator<? extends Map.Entry<?, ?>> entries = ((Map<?, ?>) value).entrySet().iterator();
+            while (entries.hasNext()) {
+                final Map.Entry<?, ?> entry = entries.next();
+                json.append(JSONUtils.quote(String.valueOf(entry.getKey()))).append(':');
+                writeJson(entry.getValue(), json);
+                if (entries.hasNext()) {
+                    json.append(',');
+                }
+            }
+            json.append('}');
+        } else if (value instanceof Collection) {
+            json.append('[');
+            final Iterator<?> items = ((Collection<?>) value).iterator();
+            while (items.hasNext()) {
+                writeJson(items.next(), json);
+                if (items.hasNext()) {
+                    json.append(',');
+                }
+            }
+            json.append(']');
+        } else {
+            json.append(JSONUtils.quote(value.toString()));
+        }
+    }
+
+    /**
+     * Gets the URL of the given parameter, if it is one of the parameters of the given job.
+     *
+     * @param job the job of the parameter
+     * @param parameter the parameter
+     * @return the URL of the parameter relative to the context path, or {@code null} if the parameter is not
+     * part of the current configuration of the job
+     */
+    static String getUrl(Job<?, ?> job, AbstractScriptableParameter parameter) {
+        for (ParameterDefinition definition : Utils.getJobParameterDefinitions(job)) {
+            if (definition == parameter) {
+                return job.getUrl() + URL_NAME + "/" + Util.rawEncode(parameter.getRandomName());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the URL at which the choices of the given parameter can be searched, if it is one of the parameters of
+     * the given job.
+     *
+     * @param job the job of the parameter
+     * @param parameter the parameter
+     * @return the URL relative to the context path, or {@code null} if the parameter is not part of the current
+     * configuration of the job
+     */
+    static String getSearchUrl(Job<?, ?> job, AbstractScriptableParameter parameter) {
+        return getUrl(job, parameter) != null ? job.getUrl() + URL_NAME + "/search" : null;
+    }
+
+    @Extension
+    @SuppressWarnings("rawtypes")
+    public static final class FactoryImpl extends TransientActionFactory<Job> {
+
+        @Override
+        public Class<Job> type() {
+            return Job.class;
+        }
+
+        @NonNull
+        @Override
+        public Collection<? extends Action> createFor(@NonNull Job target) {
+            return Collections.singleton(new ActiveChoicesAction(target));
+        }
+    }
+}
@@ -144,6 +144,7 @@ public class CascadeChoiceParameter extends AbstractCascadableParameter {
      * Get the filter flag.
      * @return filter flag
      */
+    @Override
     public boolean getFilterable() {
         return Objects.equals(filterable, Boolean.TRUE);
     }
@@ -0,0 +1,288 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.biouno.unochoice.util.Cancellation;
+import org.biouno.unochoice.util.ScriptExecutor;
+import org.biouno.unochoice.util.Utils;
+
+import hudson.model.Job;
+import hudson.model.ParameterDefinition;
+
+/**
+ * <p>Evaluates a cascadable parameter and all the parameters of its job that depend on it.</p>
+ *
+ * <p>A graph is built from the referenced parameters of each cascadable parameter of the job. The affected
+ * parameters are then evaluated level by level, in topological order, so that each parameter is evaluated
+ * once with the new values of the parameters it references. Parameters of the same level do not depend on
+ * each other, and are evaluated in parallel on the {@link ScriptExecutor}.</p>
+ *
+ * @since 2.8.10
+ */
+final class CascadeEvaluator {
+
+    private static final Logger LOGGER = Logger.getLogger(CascadeEvaluator.class.getName());
+
+    private final AbstractCascadableParameter origin;
+
+    private final Set<String> roots;
+
+    CascadeEvaluator(AbstractCascadableParameter origin) {
+        this(origin, Set.of(origin.getName()));
+    }
+
+    /**
+     * @param origin a parameter of the job
+     * @param roots names of the parameters to evaluate, along with the parameters that depend on them
+     */
+    CascadeEvaluator(AbstractCascadableParameter origin, Set<String> roots) {
+        this.origin = origin;
+        this.roots = roots;
+    }
+
+    /**
+     * Evaluates the root parameters and the parameters that depend on them. Dependents are skipped when the values
+     * of the parameters they reference did not change, so the UI keeps their current choices.
+     *
+     * @param values values of the form parameters
+     * @return the result of each evaluated parameter, by parameter name, in evaluation order
+     */
+    Map<String, Object> evaluate(Map<Object, Object> values) {
+        final Map<Object, Object> currentValues = new HashMap<>(values);
+        final Map<String, Object> results = new LinkedHashMap<>();
+        for (List<AbstractCascadableParameter> level : getLevels()) {
+            if (Cancellation.isCurrentCancelled()) {
+                // superseded by a newer request of the UI, skip the remaining levels
+                break;
+            }
+            // dependents whose inputs kept the values sent by the UI already display the right choices
+            final List<AbstractCascadableParameter> changed = new ArrayList<>();
+            for (AbstractCascadableParameter parameter : level) {
+                if (roots.contains(parameter.getName())
+                        || !getInputs(parameter, currentValues).equals(getInputs(parameter, values))) {
+                    changed.add(parameter);
+                }
+            }
+            if (changed.isEmpty()) {
+                continue;
+            }
+            final Map<AbstractCascadableParameter, Object> levelResults = evaluateLevel(changed, currentValues);
+            if (Cancellation.isCurrentCancelled()) {
+                break;
+            }
+            for (Map.Entry<AbstractCascadableParameter, Object> entry : levelResults.entrySet()) {
+                final AbstractCascadableParameter parameter = entry.getKey();
+                final String name = parameter.getName();
+                results.put(name, entry.getValue());
+                final String previousValue = Objects.toString(currentValues.get(name), "");
+                currentValues.put(name, parameter.getValueForUI(entry.getValue(), previousValue));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Groups the root parameters and the parameters that depend on them in levels, where the parameters of each
+     * level only reference parameters of the previous levels, or parameters not affected by the change. Each
+     * parameter is in a single level, even when it depends on several of the roots.
+     *
+     * @return levels of parameters, in evaluation order
+     */
+    List<List<AbstractCascadableParameter>> getLevels() {
+        final Map<String, AbstractCascadableParameter> parameters = getJobParameters();
+        // parameter name to the names of the parameters referencing it
+        final Map<String, Set<String>> dependents = new HashMap<>();
+        for (AbstractCascadableParameter parameter : parameters.values()) {
+            for (String referenced : parameter.getReferencedParametersAsArray()) {
+                if (!referenced.equals(parameter.getName())) {
+                    dependents.computeIfAbsent(referenced, k -> new LinkedHashSet<>()).add(parameter.getName());
+                }
+            }
+        }
+
+        // the roots, and everything reachable from them
+        final Set<String> affected = new LinkedHashSet<>();
+        final Deque<String> queue = new ArrayDeque<>();
+        for (String root : roots) {
+            if (parameters.containsKey(root) && affected.add(root)) {
+                queue.add(root);
+            }
+        }
+        while (!queue.isEmpty()) {
+            for (String dependent : dependents.getOrDefault(queue.poll(), Set.of())) {
+                if (parameters.containsKey(dependent) && affected.add(dependent)) {
+                    queue.add(dependent);
+                }
+            }
+        }
+
+        // number of affected parameters each affected parameter is waiting for
+        final Map<String, Integer> pending = new HashMap<>();
+        for (String name : affected) {
+            final Set<String> waitingFor = new LinkedHashSet<>(List.of(parameters.get(name).getReferencedParametersAsArray()));
+            waitingFor.remove(name);
+            waitingFor.retainAll(affected);
+            // a single root is evaluated first, even if it references parameters that depend on it
+            pending.put(name, roots.size() == 1 && roots.contains(name) ? 0 : waitingFor.size());
+        }
+
+        final List<List<AbstractCascadableParameter>> levels = new ArrayList<>();
+        List<String> ready = new ArrayList<>();
+        for (String name : affected) {
+            if (pending.get(name) == 0) {
+                ready.add(name);
+            }
+        }
+        final Set<String> done = new LinkedHashSet<>();
+        while (!ready.isEmpty()) {
+            final List<AbstractCascadableParameter> level = new ArrayList<>();
+            for (String name : ready) {
+                level.add(parameters.get(name));
+                done.add(name);
+            }
+            levels.add(level);
+            final List<String> next = new ArrayList<>();
+            for (String name : ready) {
+                for (String dependent : dependents.getOrDefault(name, Set.of())) {
+                    if (affected.contains(dependent) && !done.contains(dependent)
+                            && pending.merge(dependent, -1, Integer::sum) == 0) {
+                        next.add(dependent);
+                    }
+                }
+            }
+            ready = next;
+        }
+        if (done.size() < affected.size() && LOGGER.isLoggable(Level.FINE)) {
+            final Set<String> cycle = new LinkedHashSet<>(affected);
+            cycle.removeAll(done);
+            LOGGER.fine(String.format("Not evaluating parameters %s that depend on %s, as they reference each other",
+                    cycle, roots));
+        }
+        return levels;
+    }
+
+    /**
+     * @return the cascadable parameters of the job of the origin parameter, by name. Only the origin parameter if
+     * the job cannot be resolved
+     */
+    private Map<String, AbstractCascadableParameter> getJobParameters() {
+        final Map<String, AbstractCascadableParameter> parameters = new LinkedHashMap<>();
+        final Job<?, ?> job = origin.resolveJob();
+        if (job != null) {
+            for (ParameterDefinition definition : Utils.getJobParameterDefinitions(job)) {
+                if (definition instanceof AbstractCascadableParameter) {
+                    parameters.put(definition.getName(), (AbstractCascadableParameter) definition);
+                }
+            }
+        }
+        // the definition in the job may have been replaced by a newer configuration, use the one in the page
+        parameters.put(origin.getName(), origin);
+        return parameters;
+    }
+
+    private Map<AbstractCascadableParameter, Object> evaluateLevel(List<AbstractCascadableParameter> level,
+            Map<Object, Object> values) {
+        final Map<AbstractCascadableParameter, Object> results = new LinkedHashMap<>();
+        if (level.size() == 1 || ScriptExecutor.isExecutorThread()) {
+            // a thread of the executor (e.g. serving a call of a batch) does not wait for the other threads of the pool
+            for (AbstractCascadableParameter parameter : level) {
+                results.put(parameter, parameter.evaluateForUI(getInputs(parameter, values)));
+            }
+            return results;
+        }
+        final Map<AbstractCascadableParameter, Future<Object>> futures = new LinkedHashMap<>();
+        for (AbstractCascadableParameter parameter : level) {
+            final Map<Object, Object> inputs = getInputs(parameter, values);
+            try {
+                futures.put(parameter, ScriptExecutor.INSTANCE.submit(() -> parameter.evaluateForUI(inputs)));
+            } catch (RejectedExecutionException e) {
+                // executor busy, evaluate on this thread instead
+                results.put(parameter, parameter.evaluateForUI(inputs));
+            }
+        }
+        for (Map.Entry<AbstractCascadableParameter, Future<Object>> entry : futures.entrySet()) {
+            final AbstractCascadableParameter parameter = entry.getKey();
+            results.put(parameter, await(parameter, entry.getValue(), getInputs(parameter, values)));
+        }
+        // keep the order of the level
+        final Map<AbstractCascadableParameter, Object> ordered = new LinkedHashMap<>();
+        for (AbstractCascadableParameter parameter : level) {
+            ordered.put(parameter, results.get(parameter));
+        }
+        return ordered;
+    }
+
+    private static Object await(AbstractCascadableParameter parameter, Future<Object> future, Map<Object, Object> inputs) {
+        final int timeout = parameter.getEffectiveEvaluationTimeout();
+        try {
+            return timeout > 0 ? future.get(timeout, TimeUnit.SECONDS) : future.get();
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            LOGGER.log(Level.WARNING, String.format("Script for parameter '%s' did not complete in time, using its "
+                    + "fallback instead", parameter.getName()));
+            return parameter.evaluateFallbackForUI(inputs);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return parameter.evaluateFallbackForUI(inputs);
+        } catch (CancellationException e) {
+            // cancelled along with the request, the result is discarded
+            return null;
+        } catch (ExecutionException e) {
+            LOGGER.log(Level.SEVERE, String.format("Error evaluating parameter '%s'", parameter.getName()), e.getCause());
+            return parameter.evaluateFallbackForUI(inputs);
+        }
+    }
+
+    /**
+     * @return the values of the parameters referenced by the given parameter, as the UI would send them
+     */
+    private static Map<Object, Object> getInputs(AbstractCascadableParameter parameter, Map<Object, Object> values) {
+        final Map<Object, Object> inputs = new LinkedHashMap<>();
+        for (String referenced : parameter.getReferencedParametersAsArray()) {
+            inputs.put(referenced, Objects.toString(values.get(referenced), ""));
+        }
+        return inputs;
+    }
+}
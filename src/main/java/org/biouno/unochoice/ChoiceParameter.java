@@ -25,8 +25,6 @@
 package org.biouno.unochoice;
 
 import hudson.Extension;
-import hudson.model.ParameterValue;
-import hudson.model.StringParameterValue;
 import org.apache.commons.lang3.StringUtils;
 import org.biouno.unochoice.model.Script;
 import org.jenkinsci.Symbol;
@@ -140,6 +138,7 @@ public class ChoiceParameter extends AbstractScriptableParameter {
      * Get the filter flag.
      * @return filter flag
      */
+    @Override
     public boolean getFilterable() {
         return Objects.equals(filterable, Boolean.TRUE);
     }
@@ -153,7 +152,7 @@ public class ChoiceParameter extends AbstractScriptableParameter {
     }
 
     /**
-     * Returns the default value for this parameter.
+     * Computes the default value for this parameter.
      *
      * <p>For checkbox parameters (JENKINS-75760), the default value is derived from
      * the choices marked as selected in the choice metadata. If no choices are
@@ -162,19 +161,16 @@ public class ChoiceParameter extends AbstractScriptableParameter {
      * @return the default parameter value, or a comma-separated list of selected checkbox values
      */
     @Override
-    public ParameterValue getDefaultParameterValue() {
+    protected String computeDefaultValue() {
         if (Objects.equals(choiceType, PARAMETER_TYPE_CHECK_BOX)) {
-            final String name = getName();
             final Map<Object, Object> choices = getChoices(Collections.emptyMap());
 
-            final String defaultValue = choices.entrySet().stream()
+            return choices.entrySet().stream()
                     .filter(entry -> Objects.toString(entry.getValue()).contains(SELECTED_OPTION))
                     .map(entry -> Objects.toString(entry.getKey()).split(":", 2)[0])
                     .collect(Collectors.joining(","));
-
-            return new StringParameterValue(name, defaultValue);
         }
-        return super.getDefaultParameterValue();
+        return super.computeDefaultValue();
     }
 
     // --- descriptor
@@ -0,0 +1,166 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.biouno.unochoice.util.Utils;
+
+import hudson.Extension;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.Job;
+import hudson.model.ParameterDefinition;
+import hudson.model.TaskListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+
+/**
+ * <p>Evaluates the scripts of parameters with a {@link AbstractScriptableParameter#getRefreshInterval() refresh
+ * interval} in the background, so that pages are rendered with precomputed choices instead of waiting for slow
+ * scripts.</p>
+ *
+ * <p>Each parameter is refreshed once per interval, plus a random jitter so that parameters with the same
+ * interval do not all run at once. At most {@link #MAX_CONCURRENCY} scripts are evaluated at the same time.</p>
+ *
+ * <p>The refreshed choices are served to every user, so the scripts run as the anonymous user: they never see
+ * more than a user who is not logged in would.</p>
+ *
+ * @since 2.8.10
+ */
+@Extension
+public class ChoicesRefresher extends AsyncPeriodicWork {
+
+    private static final Logger LOGGER = Logger.getLogger(ChoicesRefresher.class.getName());
+
+    /**
+     * How often, in seconds, to look for parameters due for a refresh.
+     */
+    static final int RECURRENCE_PERIOD = SystemProperties.getInteger(ChoicesRefresher.class.getName() + ".recurrencePeriod", 60);
+
+    /**
+     * Maximum number of scripts evaluated at the same time.
+     */
+    static final int MAX_CONCURRENCY = SystemProperties.getInteger(ChoicesRefresher.class.getName() + ".maxConcurrency", 2);
+
+    /**
+     * Maximum jitter added to the refresh interval, as a percentage of the interval.
+     */
+    static final int JITTER_PERCENT = SystemProperties.getInteger(ChoicesRefresher.class.getName() + ".jitterPercent", 10);
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Time of the next refresh, keyed by job full name and parameter random name. Only accessed by the
+     * periodic work thread.
+     */
+    private Map<String, Long> nextRefresh = new HashMap<>();
+
+    public ChoicesRefresher() {
+        super("Active Choices parameters refresh");
+        final int threads = Math.max(1, MAX_CONCURRENCY);
+        executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new NamingThreadFactory(new DaemonThreadFactory(), "Active Choices parameters refresh"));
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return TimeUnit.SECONDS.toMillis(Math.max(1, RECURRENCE_PERIOD));
+    }
+
+    @Override
+    protected void execute(TaskListener listener) {
+        final long now = System.currentTimeMillis();
+        final Map<String, Long> refreshes = new HashMap<>();
+        final List<Future<?>> futures = new ArrayList<>();
+        // only lists the parameters, the scripts are run as anonymous
+        try (ACLContext ignored = ACL.as2(ACL.SYSTEM2)) {
+            for (Job<?, ?> job : Jenkins.get().allItems(Job.class)) {
+                for (ParameterDefinition parameterDefinition : Utils.getJobParameterDefinitions(job)) {
+                    if (!(parameterDefinition instanceof AbstractScriptableParameter)) {
+                        continue;
+                    }
+                    final AbstractScriptableParameter parameter = (AbstractScriptableParameter) parameterDefinition;
+                    final Integer interval = parameter.getRefreshInterval();
+                    if (interval == null) {
+                        continue;
+                    }
+                    final String key = job.getFullName() + '#' + parameter.getRandomName();
+                    final Long due = nextRefresh.get(key);
+                    if (due != null && due > now) {
+                        refreshes.put(key, due);
+                        continue;
+                    }
+                    refreshes.put(key, now + TimeUnit.SECONDS.toMillis(interval) + jitter(interval));
+                    futures.add(executor.submit(() -> refresh(job, parameter)));
+                }
+            }
+        }
+        // forget parameters that were removed
+        nextRefresh = refreshes;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                LOGGER.log(Level.FINE, "Unexpected error refreshing parameter", e);
+            }
+        }
+        if (!futures.isEmpty()) {
+            listener.getLogger().printf("Refreshed %d parameters%n", futures.size());
+        }
+    }
+
+    private static void refresh(Job<?, ?> job, AbstractScriptableParameter parameter) {
+        try (ACLContext ignored = ACL.as2(Jenkins.ANONYMOUS2)) {
+            parameter.refreshChoices();
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, String.format("Failed to refresh parameter '%s' of job '%s'", parameter.getName(),
+                    job.getFullName()), e);
+        }
+    }
+
+    private static long jitter(int intervalSeconds) {
+        final long maxJitter = TimeUnit.SECONDS.toMillis(intervalSeconds) * Math.max(0, JITTER_PERCENT) / 100;
+        return maxJitter > 0 ? ThreadLocalRandom.current().nextLong(maxJitter) : 0L;
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.biouno.unochoice.util.ParameterIndex;
+import org.biouno.unochoice.util.Utils;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.AbstractProject;
+import hudson.model.Items;
+import hudson.model.Job;
+import hudson.model.ParameterDefinition;
+import hudson.model.Run;
+import hudson.model.Saveable;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
+import hudson.model.listeners.SaveableListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.triggers.Trigger;
+import jenkins.model.Jenkins;
+import jenkins.model.ParameterizedJobMixIn;
+import jenkins.triggers.ReverseBuildTrigger;
+import jenkins.util.SystemProperties;
+
+/**
+ * <p>The in-memory cache of the default values of parameters.</p>
+ *
+ * <p>Each parameter keeps its last computed default value in an {@link Entry}, which is never persisted.
+ * Entries expire after {@link #TTL} seconds, and are invalidated when the job is saved (which includes script
+ * edits), when a build of the job or of one of its upstream jobs completes, or by an administrator via
+ * {@link UnoChoiceParameterDescriptor#doClearCaches()}.</p>
+ *
+ * @since 2.8.10
+ */
+final class DefaultValueCache {
+
+    private static final Logger LOGGER = Logger.getLogger(DefaultValueCache.class.getName());
+
+    /**
+     * Time, in seconds, a cached default value may be used by builds.
+     */
+    static final int TTL = SystemProperties.getInteger(DefaultValueCache.class.getName() + ".ttl", 600);
+
+    /**
+     * Incremented to invalidate every entry at once.
+     */
+    private static final AtomicLong GENERATION = new AtomicLong();
+
+    private DefaultValueCache() {
+    }
+
+    /**
+     * Invalidates the default values of every parameter.
+     */
+    static void invalidateAll() {
+        GENERATION.incrementAndGet();
+    }
+
+    /**
+     * Invalidates the default values of the parameters of the given job.
+     *
+     * @param job job
+     */
+    static void invalidate(@NonNull Job<?, ?> job) {
+        for (ParameterDefinition parameterDefinition : Utils.getJobParameterDefinitions(job)) {
+            if (parameterDefinition instanceof AbstractScriptableParameter) {
+                ((AbstractScriptableParameter) parameterDefinition).getDefaultValueEntry().invalidate();
+            }
+        }
+    }
+
+    /**
+     * The last computed default value of a parameter, and whether it is being refreshed.
+     */
+    static final class Entry {
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        private volatile String value;
+        private volatile long timestamp;
+        private volatile long generation;
+
+        /**
+         * @return the last computed value, even if invalidated, or {@code null} if never computed
+         */
+        String get() {
+            return value;
+        }
+
+        /**
+         * @param ttlMillis time-to-live
+         * @return the last computed value, or {@code null} if never computed, invalidated, or older than the TTL
+         */
+        String getIfFresh(long ttlMillis) {
+            return isOlderThan(ttlMillis) ? null : value;
+        }
+
+        void set(String value) {
+            this.value = value;
+            this.generation = GENERATION.get();
+            this.timestamp = System.currentTimeMillis();
+        }
+
+        void invalidate() {
+            this.timestamp = 0L;
+        }
+
+        boolean isOlderThan(long millis) {
+            return value == null || generation != GENERATION.get()
+                    || System.currentTimeMillis() - timestamp >= millis;
+        }
+
+        boolean startRefresh() {
+            return refreshing.compareAndSet(false, true);
+        }
+
+        void endRefresh() {
+            refreshing.set(false);
+        }
+    }
+
+    /**
+     * Invalidates the default values of a job when it is saved, e.g. after its scripts are edited.
+     */
+    @Extension
+    public static final class SaveableListenerImpl extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof Job) {
+                invalidate((Job<?, ?>) o);
+            }
+        }
+    }
+
+    /**
+     * Invalidates the default values of the jobs with Active Choices parameters that are triggered when the given
+     * job completes, e.g. Pipelines with an upstream trigger. The downstream jobs of freestyle projects are also
+     * found by {@link AbstractProject#getDownstreamProjects()}, but other jobs are not part of the dependency graph.
+     *
+     * @param upstream the job that completed a build
+     */
+    private static void invalidateTriggered(@NonNull Job<?, ?> upstream) {
+        try (ACLContext ignored = ACL.as2(ACL.SYSTEM2)) {
+            for (String fullName : ParameterIndex.INSTANCE.getJobFullNames()) {
+                final Job<?, ?> job = Jenkins.get().getItemByFullName(fullName, Job.class);
+                if (job instanceof ParameterizedJobMixIn.ParameterizedJob
+                        && isTriggeredBy((ParameterizedJobMixIn.ParameterizedJob<?, ?>) job, upstream)) {
+                    invalidate(job);
+                }
+            }
+        }
+    }
+
+    private static boolean isTriggeredBy(ParameterizedJobMixIn.ParameterizedJob<?, ?> job, Job<?, ?> upstream) {
+        for (Trigger<?> trigger : job.getTriggers().values()) {
+            if (trigger instanceof ReverseBuildTrigger) {
+                final String upstreamProjects = ((ReverseBuildTrigger) trigger).getUpstreamProjects();
+                if (upstreamProjects != null
+                        && Items.fromNameList(job.getParent(), upstreamProjects, Job.class).contains(upstream)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Invalidates the default values of a job and of its downstream jobs when one of its builds completes,
+     * as scripts often list the builds or artifacts of upstream jobs.
+     */
+    @Extension
+    public static final class RunListenerImpl extends RunListener<Run<?, ?>> {
+        @Override
+        public void onCompleted(Run<?, ?> run, @NonNull TaskListener listener) {
+            final Job<?, ?> job = run.getParent();
+            invalidate(job);
+            if (job instanceof AbstractProject) {
+                for (AbstractProject<?, ?> downstream : ((AbstractProject<?, ?>) job).getDownstreamProjects()) {
+                    invalidate(downstream);
+                }
+            }
+            invalidateTriggered(job);
+            if (LOGGER.isLoggable(Level.FINEST)) {
+                LOGGER.finest(String.format("Invalidated the default values of '%s' and of its downstream jobs",
+                        job.getFullName()));
+            }
+        }
+    }
+}
@@ -25,6 +25,7 @@
 package org.biouno.unochoice;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import org.apache.commons.lang3.BooleanUtils;
@@ -130,6 +131,56 @@ public class DynamicReferenceParameter extends AbstractCascadableParameter {
         return getChoicesAsString(getParameters());
     }
 
+    /**
+     * Evaluates the script with the given values of the referenced parameters, and returns its result
+     * as a string, without storing anything in this parameter definition.
+     *
+     * @param parameters name=value pairs of the referenced parameters
+     * @return the script result as a string
+     * @since 2.8.10
+     */
+    @JavaScriptMethod
+    public String evaluateChoicesAsStringForUI(String parameters) {
+        return getChoicesAsString(parseParameters(parameters));
+    }
+
+    /**
+     * @return {@code true} if this parameter is rendered as a list, {@code false} if rendered as text
+     */
+    private boolean isRenderedAsList() {
+        return ELEMENT_TYPE_ORDERED_LIST.equals(choiceType) || ELEMENT_TYPE_UNORDERED_LIST.equals(choiceType);
+    }
+
+    @Override
+    Object evaluateForUI(Map<Object, Object> parameters) {
+        return isRenderedAsList() ? super.evaluateForUI(parameters) : getChoicesAsString(parameters);
+    }
+
+    @Override
+    Object evaluateFallbackForUI(Map<Object, Object> parameters) {
+        return isRenderedAsList() ? super.evaluateFallbackForUI(parameters) : Objects.toString(evaluateFallback(parameters), "");
+    }
+
+    /**
+     * @return {@code true} if this parameter is rendered as formatted HTML, visible or not
+     */
+    private boolean isRenderedAsHtml() {
+        return ELEMENT_TYPE_FORMATTED_HTML.equals(choiceType) || ELEMENT_TYPE_FORMATTED_HIDDEN_HTML.equals(choiceType);
+    }
+
+    @Override
+    String getValueForUI(Object result, String previousValue) {
+        if (isRenderedAsHtml()) {
+            // the value comes from elements within the rendered HTML, that only the UI knows about
+            return previousValue;
+        }
+        if (isRenderedAsList()) {
+            // lists are only displayed, they have no value
+            return "";
+        }
+        return Objects.toString(result, "");
+    }
+
     // --- descriptor
 
     @Extension
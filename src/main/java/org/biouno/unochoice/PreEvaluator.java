@@ -0,0 +1,100 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.biouno.unochoice.util.RequestMemo;
+import org.biouno.unochoice.util.ScriptExecutor;
+import org.biouno.unochoice.util.Utils;
+import org.kohsuke.stapler.Stapler;
+import org.kohsuke.stapler.StaplerRequest2;
+
+import hudson.model.Job;
+import hudson.model.ParameterDefinition;
+import jenkins.util.SystemProperties;
+
+/**
+ * <p>Starts the evaluation of every root level parameter of a job before the build form is rendered.</p>
+ *
+ * <p>The parameters of the form are rendered one after the other, so without this the page takes as long as all
+ * their scripts together. When the first Active Choices parameter of the form is rendered, the parameters that do
+ * not reference other parameters, including cascade parameters without referenced parameters, are evaluated
+ * concurrently on the {@link ScriptExecutor}, and each parameter then
+ * renders the result of its evaluation (see {@link RequestMemo}). Cascade parameters are rendered with the results
+ * of the parameters they reference.</p>
+ *
+ * @since 2.8.10
+ */
+final class PreEvaluator {
+
+    /**
+     * Whether root level parameters are evaluated concurrently before the build form is rendered.
+     */
+    static final boolean ENABLED = SystemProperties.getBoolean(PreEvaluator.class.getName() + ".enabled", true);
+
+    private static final String ATTRIBUTE = PreEvaluator.class.getName();
+
+    private PreEvaluator() {
+    }
+
+    /**
+     * Starts the evaluation of the root level parameters of the job of the given parameter, once per request.
+     *
+     * @param rendered the parameter being rendered
+     */
+    static void preEvaluate(AbstractScriptableParameter rendered) {
+        final StaplerRequest2 request = Stapler.getCurrentRequest2();
+        if (!ENABLED || request == null || request.getAttribute(ATTRIBUTE) != null
+                || ScriptExecutor.isExecutorThread()) {
+            return;
+        }
+        request.setAttribute(ATTRIBUTE, Boolean.TRUE);
+        final Job<?, ?> job = rendered.resolveJob();
+        if (job == null) {
+            return;
+        }
+        final List<AbstractScriptableParameter> roots = new ArrayList<>();
+        for (ParameterDefinition definition : Utils.getJobParameterDefinitions(job)) {
+            if (definition instanceof AbstractScriptableParameter && isRoot((AbstractScriptableParameter) definition)) {
+                roots.add((AbstractScriptableParameter) definition);
+            }
+        }
+        // the parameter being rendered alone is evaluated as fast on the request thread
+        if (roots.size() > 1 || (roots.size() == 1 && roots.get(0) != rendered)) {
+            roots.forEach(AbstractScriptableParameter::preEvaluate);
+        }
+    }
+
+    /**
+     * @param parameter a parameter of the job
+     * @return {@code true} if the parameter does not reference other parameters
+     */
+    private static boolean isRoot(AbstractScriptableParameter parameter) {
+        return !(parameter instanceof AbstractCascadableParameter)
+                || ((AbstractCascadableParameter) parameter).getReferencedParametersAsArray().length == 0;
+    }
+}
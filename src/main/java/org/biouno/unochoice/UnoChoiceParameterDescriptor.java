@@ -28,9 +28,14 @@ import java.util.LinkedList;
 import java.util.List;
 
 import org.biouno.unochoice.model.Script;
+import org.biouno.unochoice.util.ScriptResultCache;
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.HttpResponses;
+import org.kohsuke.stapler.interceptor.RequirePOST;
 
 import hudson.model.Descriptor;
 import hudson.model.ParameterDefinition.ParameterDescriptor;
+import jenkins.model.Jenkins;
 
 /**
  * Descriptor for Uno Choice parameters.
@@ -44,4 +49,19 @@ public class UnoChoiceParameterDescriptor extends ParameterDescriptor {
         return new LinkedList<>(Script.all());
     }
 
+    /**
+     * Invalidates the cached default values and script results of every parameter, e.g. after an external
+     * change that scripts depend on. Available to administrators at
+     * {@code POST /descriptorByName/org.biouno.unochoice.ChoiceParameter/clearCaches}.
+     *
+     * @return HTTP 200
+     */
+    @RequirePOST
+    public HttpResponse doClearCaches() {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+        DefaultValueCache.invalidateAll();
+        ScriptResultCache.INSTANCE.clear();
+        return HttpResponses.ok();
+    }
+
 }
@@ -29,7 +29,6 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -37,7 +36,10 @@ import java.util.stream.Collectors;
 import edu.umd.cs.findbugs.annotations.Nullable;
 
 import hudson.model.Descriptor;
+import org.biouno.unochoice.util.CompiledScriptCache;
+import org.biouno.unochoice.util.LazyBinding;
 import org.biouno.unochoice.util.SafeHtmlExtendedMarkupFormatter;
+import org.biouno.unochoice.util.ScriptParameters;
 import org.jenkinsci.Symbol;
 import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
 import org.jenkinsci.plugins.scriptsecurity.scripts.ApprovalContext;
@@ -157,6 +159,62 @@ public class GroovyScript extends AbstractScript {
         if (secureScript == null) {
             return null;
         }
+        final ClassLoader cl = getClassLoader();
+        final Binding context = createBinding(parameters);
+        try {
+            return evaluate(secureScript, cl, context);
+        } catch (Exception re) {
+            if (this.secureFallbackScript != null) {
+                try {
+                    LOGGER.log(Level.FINEST, "Fallback to default script...", re);
+                    return evaluate(secureFallbackScript, cl, context);
+                } catch (Exception e2) {
+                    LOGGER.log(Level.WARNING, "Error executing fallback script", e2);
+                    throw new RuntimeException("Failed to evaluate fallback script: " + e2.getMessage(), e2);
+                }
+            } else {
+                LOGGER.log(Level.WARNING, "No fallback script configured for '%s'");
+                throw new RuntimeException("Failed to evaluate script: " + re.getMessage(), re);
+            }
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.biouno.unochoice.model.Script#evalPrimary(java.util.Map)
+     */
+    @Override
+    public Object evalPrimary(Map<String, String> parameters) throws RuntimeException {
+        if (secureScript == null) {
+            return null;
+        }
+        try {
+            return evaluate(secureScript, getClassLoader(), createBinding(parameters));
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to evaluate script: " + e.getMessage(), e);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.biouno.unochoice.model.Script#evalFallback(java.util.Map)
+     */
+    @Override
+    public Object evalFallback(Map<String, String> parameters) throws RuntimeException {
+        if (secureFallbackScript == null) {
+            return null;
+        }
+        try {
+            return evaluate(secureFallbackScript, getClassLoader(), createBinding(parameters));
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Error executing fallback script", e);
+            throw new RuntimeException("Failed to evaluate fallback script: " + e.getMessage(), e);
+        }
+    }
+
+    private static ClassLoader getClassLoader() {
         final Jenkins instance = Jenkins.getInstanceOrNull();
         ClassLoader cl = null;
         if (instance != null) {
@@ -170,47 +228,38 @@ public class GroovyScript extends AbstractScript {
         if (cl == null) {
             cl = Thread.currentThread().getContextClassLoader();
         }
+        return cl;
+    }
 
-        final Binding context = new Binding();
-
-        // @SuppressWarnings("unchecked")
+    private static Binding createBinding(Map<String, String> parameters) {
+        // the parameters are bound as they are, and variables such as jenkinsProject are only computed if the
+        // script reads them
         final Map<String, String> envVars = System.getenv();
-        for (Entry<String, String> parameter : parameters.entrySet()) {
-            Object value = parameter.getValue();
-            if (value != null) {
-                if (value instanceof String) {
-                    value = Util.replaceMacro((String) value, envVars);
-                }
-                context.setVariable(parameter.getKey(), value);
-            }
+        return new LazyBinding(parameters, value -> expandMacros(value, envVars),
+                ScriptParameters.lazyVariablesOf(parameters));
+    }
+
+    /**
+     * Expands the environment variables referenced by a parameter value. Most values do not reference any, and are
+     * returned as they are.
+     */
+    private static Object expandMacros(Object value, Map<String, String> envVars) {
+        if (value instanceof String && ((String) value).indexOf('$') >= 0) {
+            return Util.replaceMacro((String) value, envVars);
         }
+        return value;
+    }
 
-        try {
-            Object returnValue = secureScript.evaluate(cl, context, null);
-            // sanitize the text if running script in sandbox mode
-            if (secureScript.isSandbox()) {
-                returnValue = resolveTypeAndSanitize(returnValue);
-            }
-            return returnValue;
-        } catch (Exception re) {
-            if (this.secureFallbackScript != null) {
-                try {
-                    LOGGER.log(Level.FINEST, "Fallback to default script...", re);
-                    Object returnValue = secureFallbackScript.evaluate(cl, context, null);
-                    // sanitize the text if running script in sandbox mode
-                    if (secureFallbackScript.isSandbox()) {
-                        returnValue = resolveTypeAndSanitize(returnValue);
-                    }
-                    return returnValue;
-                } catch (Exception e2) {
-                    LOGGER.log(Level.WARNING, "Error executing fallback script", e2);
-                    throw new RuntimeException("Failed to evaluate fallback script: " + e2.getMessage(), e2);
-                }
-            } else {
-                LOGGER.log(Level.WARNING, "No fallback script configured for '%s'");
-                throw new RuntimeException("Failed to evaluate script: " + re.getMessage(), re);
-            }
+    /**
+     * Evaluates the given secure script, sanitizing its return value when running in the sandbox.
+     */
+    private Object evaluate(SecureGroovyScript secureGroovyScript, ClassLoader cl, Binding context) throws Exception {
+        Object returnValue = CompiledScriptCache.INSTANCE.evaluate(secureGroovyScript, cl, context);
+        // sanitize the text if running script in sandbox mode
+        if (secureGroovyScript.isSandbox()) {
+            returnValue = resolveTypeAndSanitize(returnValue);
         }
+        return returnValue;
     }
 
     /**
@@ -53,6 +53,30 @@ public interface Script extends Serializable, Describable<Script> {
      */
     Object eval(Map<String, String> parameters);
 
+    /**
+     * Evaluates the fallback of this script, if any, using the given binding parameters. Used when
+     * the script itself could not be evaluated in time.
+     *
+     * @param parameters binding parameters
+     * @return output of the fallback script, or {@code null} if there is no fallback
+     * @since 2.8.10
+     */
+    default Object evalFallback(Map<String, String> parameters) {
+        return null;
+    }
+
+    /**
+     * Evaluates the script using the given binding parameters, without using its fallback if it fails.
+     *
+     * @param parameters binding parameters
+     * @return output of the script
+     * @throws RuntimeException if the script fails
+     * @since 2.8.10
+     */
+    default Object evalPrimary(Map<String, String> parameters) {
+        return eval(parameters);
+    }
+
     static DescriptorExtensionList<Script, ScriptDescriptor> all() {
         final Jenkins instance = Jenkins.getInstanceOrNull();
         DescriptorExtensionList<Script, ScriptDescriptor> all = null;
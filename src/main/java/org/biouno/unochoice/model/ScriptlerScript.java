@@ -26,11 +26,12 @@ package org.biouno.unochoice.model;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Extension;
-import hudson.Util;
 import hudson.model.Descriptor;
 import hudson.model.ManagementLink;
 import jenkins.model.Jenkins;
 import net.sf.json.JSONArray;
+import org.biouno.unochoice.util.MacroTemplate;
+import org.biouno.unochoice.util.ScriptParameters;
 import org.biouno.unochoice.util.Utils;
 import org.jenkinsci.Symbol;
 import org.jenkinsci.plugins.scriptler.ScriptlerManagement;
@@ -49,6 +50,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 /**
@@ -79,6 +81,11 @@ public class ScriptlerScript extends AbstractScript {
 
     private ScriptlerBuilder scriptlerBuilder;
 
+    /**
+     * The parameters of the Scriptler builder, with their macros parsed.
+     */
+    private transient volatile ParameterTemplates parameterTemplates;
+
     /**
      * Whether this scriptler script will run in the Groovy sandbox or not.
      */
@@ -199,23 +206,55 @@ public class ScriptlerScript extends AbstractScript {
     @Override
     public Object eval(Map<String, String> parameters) {
         final Map<String, String> envVars = Utils.getSystemEnv();
-        Map<String, String> evaledParameters = new LinkedHashMap<>(envVars);
+        // the lazy variables (e.g. jenkinsProject) of the given parameters are kept, and the environment variables
+        // are looked up last, instead of being copied
+        final ScriptParameters variables = new ScriptParameters().addLazyVariablesOf(parameters)
+                .addLazyVariables(() -> envVars);
         // if we have any parameter that came from UI, let's eval and use them
-        if (parameters != null && !parameters.isEmpty()) {
+        if (parameters != null) {
             // fill our map with the given parameters
-            evaledParameters.putAll(parameters);
-            // and now try to expand env vars
-            for (String key : this.getParameters().keySet()) {
-                String value = this.getParameters().get(key);
-                value = Util.replaceMacro(value, parameters);
-                evaledParameters.put(key, value);
+            variables.putAll(parameters);
+            // and now try to expand them, and their lazy variables, in the parameters of the Scriptler script. The
+            // environment variables are bound to the script, but not expanded
+            final Map<Object, Object> macroValues = new ScriptParameters(parameters).resolving();
+            for (Map.Entry<String, MacroTemplate> template : getParameterTemplates().entrySet()) {
+                variables.put(template.getKey(), template.getValue().expand(macroValues));
             }
         } else {
-            evaledParameters.putAll(this.getParameters());
+            variables.putAll(this.getParameters());
         }
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        final Map<String, String> evaledParameters = (Map) variables;
         return this.toGroovyScript().eval(evaledParameters);
     }
 
+    /**
+     * @return the parameters of the Scriptler builder, with their macros parsed
+     */
+    private Map<String, MacroTemplate> getParameterTemplates() {
+        final ScriptlerBuilder builder = this.scriptlerBuilder;
+        ParameterTemplates templates = parameterTemplates;
+        if (templates == null || templates.builder != builder) {
+            final Map<String, MacroTemplate> compiled = new LinkedHashMap<>();
+            for (Map.Entry<String, String> parameter : getParameters().entrySet()) {
+                compiled.put(parameter.getKey(), MacroTemplate.compile(parameter.getValue()));
+            }
+            templates = new ParameterTemplates(builder, Collections.unmodifiableMap(compiled));
+            parameterTemplates = templates;
+        }
+        return templates.templates;
+    }
+
+    private static final class ParameterTemplates {
+        private final ScriptlerBuilder builder;
+        private final Map<String, MacroTemplate> templates;
+
+        ParameterTemplates(ScriptlerBuilder builder, Map<String, MacroTemplate> templates) {
+            this.builder = builder;
+            this.templates = templates;
+        }
+    }
+
     // --- utility methods for conversion
 
     /**
@@ -228,15 +267,32 @@ public class ScriptlerScript extends AbstractScript {
      * @return a GroovyScript
      */
     public GroovyScript toGroovyScript() {
-        final Script scriptler = ScriptHelper.getScript(getScriptlerScriptId(), true);
-        if (scriptler == null) {
-            throw new RuntimeException("Missing required scriptler!");
-        }
-        try {
-            return new GroovyScript(new SecureGroovyScript(scriptler.script, this.isSandboxed, null), null);
-        } catch (Descriptor.FormException e) {
-            throw new RuntimeException("Failed to create GroovyScript", e);
-        }
+        final String scriptId = getScriptlerScriptId();
+        // reading the script from disk is cached, until the Scriptler configuration changes
+        return ScriptlerScriptCache.get(scriptId, Boolean.TRUE.equals(this.isSandboxed), () -> {
+            final Script scriptler = ScriptHelper.getScript(scriptId, true);
+            if (scriptler == null) {
+                throw new RuntimeException("Missing required scriptler!");
+            }
+            try {
+                return new GroovyScript(new SecureGroovyScript(scriptler.script, this.isSandboxed, null), null);
+            } catch (Descriptor.FormException e) {
+                throw new RuntimeException("Failed to create GroovyScript", e);
+            }
+        });
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        final String scriptId = scriptlerBuilder != null ? scriptlerBuilder.getScriptId() : scriptlerScriptId;
+        final Map<String, String> scriptParameters = scriptlerBuilder != null ? new TreeMap<>(getParameters()) : parameters;
+        return "ScriptlerScript [scriptlerScriptId=" + scriptId + ", parameters=" + scriptParameters
+                + ", isSandboxed=" + isSandboxed + "]";
     }
 
     // --- descriptor
@@ -0,0 +1,109 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Saveable;
+import hudson.model.listeners.SaveableListener;
+import jenkins.util.SystemProperties;
+
+/**
+ * <p>Caches the Groovy scripts resolved from Scriptler scripts, by Scriptler script ID and sandbox flag, so that
+ * scripts are not read from disk on every evaluation.</p>
+ *
+ * <p>The cache is cleared whenever the Scriptler configuration is saved, which happens when scripts are added,
+ * edited or removed in Jenkins. Entries also expire after {@link #TTL} seconds, to pick up script files changed
+ * on disk.</p>
+ *
+ * <p>This class does not reference Scriptler types, so that its listener can be loaded without Scriptler.</p>
+ *
+ * @since 2.8.10
+ */
+final class ScriptlerScriptCache {
+
+    /**
+     * Time, in seconds, a resolved script is re-used. A value of zero or less disables the cache.
+     */
+    static final int TTL = SystemProperties.getInteger(ScriptlerScriptCache.class.getName() + ".ttl", 60);
+
+    private static final Map<String, Entry> ENTRIES = new ConcurrentHashMap<>();
+
+    private ScriptlerScriptCache() {
+    }
+
+    /**
+     * Gets the resolved script for the given Scriptler script, resolving it when not cached or expired.
+     *
+     * @param scriptId Scriptler script ID
+     * @param sandbox whether the script runs in the sandbox
+     * @param resolver resolves the script, reading it from disk
+     * @return the resolved script
+     */
+    static GroovyScript get(String scriptId, boolean sandbox, Supplier<GroovyScript> resolver) {
+        if (TTL <= 0 || scriptId == null) {
+            return resolver.get();
+        }
+        final String key = sandbox + ":" + scriptId;
+        final Entry entry = ENTRIES.get(key);
+        if (entry != null && System.currentTimeMillis() < entry.expiresAt) {
+            return entry.script;
+        }
+        final GroovyScript script = resolver.get();
+        ENTRIES.put(key, new Entry(script, System.currentTimeMillis() + TTL * 1000L));
+        return script;
+    }
+
+    static void clear() {
+        ENTRIES.clear();
+    }
+
+    private static final class Entry {
+        private final GroovyScript script;
+        private final long expiresAt;
+
+        Entry(GroovyScript script, long expiresAt) {
+            this.script = script;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Clears the cache when the Scriptler configuration is saved.
+     */
+    @Extension
+    public static final class SaveableListenerImpl extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o != null && o.getClass().getName().startsWith("org.jenkinsci.plugins.scriptler.")) {
+                clear();
+            }
+        }
+    }
+}
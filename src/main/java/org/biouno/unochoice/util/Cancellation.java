@@ -0,0 +1,145 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.util;
+
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * <p>Lets the evaluations started for a request of the UI be cancelled, once their result is no longer needed
+ * (see {@link InFlightEvaluations}).</p>
+ *
+ * <p>A cancellation is entered on the thread serving the request. The evaluations that thread submits to the
+ * {@link ScriptExecutor} are tracked, and inherit the cancellation, so that cancelling interrupts every script
+ * still running for the request. The thread serving the request is never interrupted; it gets a
+ * {@link CancellationException} from the evaluations it was waiting for instead.</p>
+ *
+ * @since 2.8.10
+ */
+public final class Cancellation {
+
+    private static final ThreadLocal<Cancellation> CURRENT = new ThreadLocal<>();
+
+    /**
+     * A scope that does nothing, for when there is no cancellation to enter.
+     */
+    public static final Scope NO_SCOPE = () -> {
+    };
+
+    private final Set<Future<?>> futures = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean cancelled;
+
+    /**
+     * @return the cancellation entered on the current thread, or {@code null}
+     */
+    @CheckForNull
+    public static Cancellation current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @return {@code true} if the cancellation entered on the current thread was cancelled
+     */
+    public static boolean isCurrentCancelled() {
+        final Cancellation current = CURRENT.get();
+        return current != null && current.isCancelled();
+    }
+
+    /**
+     * @throws CancellationException if the cancellation entered on the current thread was cancelled
+     */
+    public static void checkCancelled() {
+        if (isCurrentCancelled()) {
+            throw new CancellationException("Evaluation cancelled");
+        }
+    }
+
+    /**
+     * Enters this cancellation on the current thread, until the returned scope is closed.
+     *
+     * @return the scope, restoring the previous cancellation of the thread when closed
+     */
+    public Scope enter() {
+        final Cancellation previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Cancels the tracked evaluations, and those tracked from now on.
+     */
+    public void cancel() {
+        cancelled = true;
+        for (Future<?> future : futures) {
+            future.cancel(true);
+        }
+        futures.clear();
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Tracks an evaluation, until it completes or is cancelled.
+     *
+     * @param future the evaluation
+     */
+    void track(@NonNull Future<?> future) {
+        futures.add(future);
+        if (cancelled || future.isDone()) {
+            // either cancelled in the meantime, or completed before being tracked
+            futures.remove(future);
+            if (cancelled) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    void untrack(@NonNull Future<?> future) {
+        futures.remove(future);
+    }
+
+    /**
+     * A cancellation entered on a thread.
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
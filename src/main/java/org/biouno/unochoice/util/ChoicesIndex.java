@@ -0,0 +1,302 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import jenkins.util.SystemProperties;
+
+/**
+ * <p>A search index over the choices returned by a script, so that the UI can search very large lists on the
+ * server and only receive one page of matches at a time, instead of every choice.</p>
+ *
+ * <p>The index is built once per result. When the results of the parameter are cached, the index is cached by
+ * {@link EvaluationKey} for as long, so that each keystroke in the filter box of the parameter only searches the
+ * index, and never serves older choices than the parameter itself. Otherwise, it only lasts for the search. Labels are matched case-insensitively,
+ * by prefix (using a sorted copy of the labels), by substring, or fuzzily (the characters of the query appear in
+ * the label in the same order). Prefix and substring matches keep the order of the script, fuzzy matches are sorted
+ * by how close they are to the query.</p>
+ *
+ * @since 2.8.10
+ */
+public final class ChoicesIndex {
+
+    /**
+     * Maximum number of indexes kept in memory.
+     */
+    static final int MAX_SIZE = SystemProperties.getInteger(ChoicesIndex.class.getName() + ".maxSize", 32);
+
+    private static final ScriptResultCache INDEXES = new ScriptResultCache(MAX_SIZE);
+
+    /**
+     * How the query is matched against the labels of the choices.
+     */
+    public enum Mode {
+        PREFIX, SUBSTRING, FUZZY;
+
+        /**
+         * @param mode name of the mode, case-insensitive
+         * @return the mode with the given name, {@link #SUBSTRING} if there is none
+         */
+        public static @NonNull Mode of(@CheckForNull String mode) {
+            for (Mode value : values()) {
+                if (value.name().equalsIgnoreCase(mode)) {
+                    return value;
+                }
+            }
+            return SUBSTRING;
+        }
+    }
+
+    private final String[] values;
+
+    private final String[] labels;
+
+    private final String[] lowerCaseLabels;
+
+    private final boolean[] disabled;
+
+    /**
+     * Positions of the choices, sorted by their lower case label.
+     */
+    private final Integer[] byLabel;
+
+    /**
+     * @param choices choice values and labels, as returned by the script
+     */
+    public ChoicesIndex(@NonNull Map<?, ?> choices) {
+        final int size = choices.size();
+        values = new String[size];
+        labels = new String[size];
+        lowerCaseLabels = new String[size];
+        disabled = new boolean[size];
+        int i = 0;
+        for (Map.Entry<?, ?> choice : choices.entrySet()) {
+            values[i] = Utils.escapeSelectedAndDisabled(choice.getKey());
+            labels[i] = Utils.escapeSelectedAndDisabled(choice.getValue());
+            lowerCaseLabels[i] = labels[i].toLowerCase(Locale.ROOT);
+            disabled[i] = Utils.isDisabled(choice.getValue());
+            i++;
+        }
+        byLabel = new Integer[size];
+        for (i = 0; i < size; i++) {
+            byLabel[i] = i;
+        }
+        Arrays.sort(byLabel, Comparator.comparing((Integer position) -> lowerCaseLabels[position]));
+    }
+
+    /**
+     * Gets the index of the given result, building and caching it when needed. Once expired, the previous index is
+     * still searched while the script is evaluated again in the background.
+     *
+     * @param key identifies the evaluation
+     * @param ttl time-to-live of the index in seconds, the same as the results of the parameter, or {@code null}
+     *     to build an index that is not cached
+     * @param loader evaluates the choices
+     * @return the index of the choices
+     * @throws Exception if the choices cannot be evaluated
+     */
+    public static @NonNull ChoicesIndex get(@NonNull EvaluationKey key, @CheckForNull Integer ttl,
+            @NonNull Callable<Map<Object, Object>> loader) throws Exception {
+        if (ttl == null) {
+            return new ChoicesIndex(loader.call());
+        }
+        return (ChoicesIndex) INDEXES.get(key, ttl * 1000L, () -> new ChoicesIndex(loader.call()));
+    }
+
+    /**
+     * @return number of choices in the index
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Searches the choices whose label matches the given query.
+     *
+     * @param query the query, an empty query matching every choice
+     * @param mode how the query is matched
+     * @param offset number of matches to skip
+     * @param limit maximum number of matches returned
+     * @return the requested page of matches, with the total number of matches
+     */
+    public @NonNull Page search(@CheckForNull String query, @NonNull Mode mode, int offset, int limit) {
+        final String text = query == null ? "" : query.toLowerCase(Locale.ROOT);
+        final List<Integer> matches;
+        if (text.isEmpty()) {
+            matches = null;
+        } else if (mode == Mode.PREFIX) {
+            matches = searchPrefix(text);
+        } else if (mode == Mode.FUZZY) {
+            matches = searchFuzzy(text);
+        } else {
+            matches = new ArrayList<>();
+            for (int i = 0; i < lowerCaseLabels.length; i++) {
+                if (lowerCaseLabels[i].contains(text)) {
+                    matches.add(i);
+                }
+            }
+        }
+        final int total = matches == null ? values.length : matches.size();
+        final int from = Math.min(Math.max(offset, 0), total);
+        final int to = Math.min(from + Math.max(limit, 0), total);
+        final List<Choice> choices = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            final int position = matches == null ? i : matches.get(i);
+            choices.add(new Choice(values[position], labels[position], disabled[position]));
+        }
+        return new Page(total, from, Collections.unmodifiableList(choices));
+    }
+
+    /**
+     * @return the positions of the labels starting with the given text, in the order of the script
+     */
+    private List<Integer> searchPrefix(String text) {
+        // the labels starting with the text are contiguous in the sorted labels
+        int low = 0;
+        int high = byLabel.length;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (lowerCaseLabels[byLabel[middle]].compareTo(text) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        final List<Integer> matches = new ArrayList<>();
+        for (int i = low; i < byLabel.length && lowerCaseLabels[byLabel[i]].startsWith(text); i++) {
+            matches.add(byLabel[i]);
+        }
+        Collections.sort(matches);
+        return matches;
+    }
+
+    /**
+     * @return the positions of the labels containing the characters of the given text in order, best matches first
+     */
+    private List<Integer> searchFuzzy(String text) {
+        final List<Integer> matches = new ArrayList<>();
+        final int[] scores = new int[lowerCaseLabels.length];
+        for (int i = 0; i < lowerCaseLabels.length; i++) {
+            final int score = fuzzyScore(lowerCaseLabels[i], text);
+            if (score >= 0) {
+                scores[i] = score;
+                matches.add(i);
+            }
+        }
+        // stable, so equal scores keep the order of the script
+        matches.sort(Comparator.comparingInt((Integer position) -> scores[position]));
+        return matches;
+    }
+
+    /**
+     * Scores how close a label is to a query, lower being closer: the number of characters skipped between the
+     * matched characters, plus where the first match starts.
+     *
+     * @return the score, or -1 if the characters of the query do not appear in the label in order
+     */
+    static int fuzzyScore(String label, String text) {
+        int score = 0;
+        int from = 0;
+        for (int i = 0; i < text.length(); i++) {
+            final int found = label.indexOf(text.charAt(i), from);
+            if (found < 0) {
+                return -1;
+            }
+            score += found - from;
+            from = found + 1;
+        }
+        return score;
+    }
+
+    /**
+     * A choice of the index.
+     */
+    public static final class Choice {
+        private final String value;
+        private final String label;
+        private final boolean disabled;
+
+        Choice(String value, String label, boolean disabled) {
+            this.value = value;
+            this.label = label;
+            this.disabled = disabled;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public boolean isDisabled() {
+            return disabled;
+        }
+    }
+
+    /**
+     * A page of the choices matching a query.
+     */
+    public static final class Page {
+        private final int total;
+        private final int offset;
+        private final List<Choice> choices;
+
+        Page(int total, int offset, List<Choice> choices) {
+            this.total = total;
+            this.offset = offset;
+            this.choices = choices;
+        }
+
+        /**
+         * @return total number of matches
+         */
+        public int getTotal() {
+            return total;
+        }
+
+        /**
+         * @return position of the first match of this page among all matches
+         */
+        public int getOffset() {
+            return offset;
+        }
+
+        public List<Choice> getChoices() {
+            return choices;
+        }
+    }
+}
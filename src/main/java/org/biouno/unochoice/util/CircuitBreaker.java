@@ -0,0 +1,117 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.util;
+
+import jenkins.util.SystemProperties;
+
+/**
+ * <p>A circuit breaker around the evaluation of a script.</p>
+ *
+ * <p>After {@link #FAILURE_THRESHOLD} consecutive failures or timeouts, the circuit opens and callers are
+ * expected to use the fallback script directly, instead of waiting for the script to fail again. Once the
+ * {@link #COOLDOWN} expires, a single probe call is allowed to run the script: the circuit closes if it
+ * succeeds, or stays open for another cooldown if it fails.</p>
+ *
+ * @since 2.8.10
+ */
+public final class CircuitBreaker {
+
+    /**
+     * Number of consecutive failures that open the circuit. A value of zero or less disables the circuit breaker.
+     */
+    static final int FAILURE_THRESHOLD = SystemProperties.getInteger(CircuitBreaker.class.getName() + ".failureThreshold", 3);
+
+    /**
+     * Time, in seconds, the circuit stays open before a probe call is allowed.
+     */
+    static final int COOLDOWN = SystemProperties.getInteger(CircuitBreaker.class.getName() + ".cooldown", 30);
+
+    private final int failureThreshold;
+    private final long cooldownMillis;
+
+    private int failures;
+    private long openUntil;
+    private boolean probing;
+
+    public CircuitBreaker() {
+        this(FAILURE_THRESHOLD, COOLDOWN * 1000L);
+    }
+
+    CircuitBreaker(int failureThreshold, long cooldownMillis) {
+        this.failureThreshold = failureThreshold;
+        this.cooldownMillis = cooldownMillis;
+    }
+
+    /**
+     * Checks whether the script may be called. When the cooldown of an open circuit has expired, only the
+     * first caller is allowed, as the probe.
+     *
+     * @return {@code true} if the script may be called, {@code false} if the fallback should be used instead
+     */
+    public synchronized boolean allowRequest() {
+        if (failureThreshold <= 0 || failures < failureThreshold) {
+            return true;
+        }
+        if (probing || System.currentTimeMillis() < openUntil) {
+            return false;
+        }
+        probing = true;
+        return true;
+    }
+
+    /**
+     * Records a successful call, closing the circuit.
+     */
+    public synchronized void onSuccess() {
+        failures = 0;
+        probing = false;
+    }
+
+    /**
+     * Records a failed or timed out call, opening the circuit once the threshold is reached.
+     */
+    public synchronized void onFailure() {
+        failures++;
+        probing = false;
+        if (failureThreshold > 0 && failures >= failureThreshold) {
+            openUntil = System.currentTimeMillis() + cooldownMillis;
+        }
+    }
+
+    /**
+     * Records a call that did not run the script (e.g. rejected by a saturated executor), which neither closes nor
+     * opens the circuit.
+     */
+    public synchronized void onIgnored() {
+        probing = false;
+    }
+
+    /**
+     * @return {@code true} if the circuit is open, i.e. calls currently go to the fallback
+     */
+    public synchronized boolean isOpen() {
+        return failureThreshold > 0 && failures >= failureThreshold;
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.codehaus.groovy.runtime.InvokerHelper;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.RejectedAccessException;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.GroovySandbox;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ApprovalContext;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import groovy.lang.Binding;
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.Script;
+import jenkins.util.SystemProperties;
+
+/**
+ * <p>A bounded cache of compiled Groovy script classes.</p>
+ *
+ * <p>{@link SecureGroovyScript#evaluate(ClassLoader, Binding, hudson.model.TaskListener)} parses and
+ * compiles a new class every time it is called. Parameters are evaluated many times per page view, so
+ * instead we compile each sandboxed script once, keyed by its text and parent class loader, and then only
+ * bind and run a new instance of the cached class.</p>
+ *
+ * <p>Only sandboxed scripts without additional classpath are cached. They are compiled and run with the
+ * {@link GroovySandbox} of script-security, which checks every call of the script against the approved
+ * signatures at runtime, the same as when the script is evaluated by {@link SecureGroovyScript}. Every other
+ * script is evaluated by {@link SecureGroovyScript} itself, which checks its approval (and the approval of its
+ * classpath) on every evaluation. Entries are evicted in least-recently-used order once the cache reaches its
+ * maximum size; evaluations still running an evicted class are not affected, and its class loader is reclaimed
+ * by the garbage collector once they finish.</p>
+ *
+ * @since 2.8.10
+ */
+public final class CompiledScriptCache {
+
+    private static final Logger LOGGER = Logger.getLogger(CompiledScriptCache.class.getName());
+
+    /**
+     * Maximum number of compiled script classes kept in memory. Each entry holds a class (and its
+     * class loader) in metaspace, so this is also what bounds the metaspace used by the cache.
+     * A value of zero or less disables the cache.
+     */
+    static final int MAX_SIZE = SystemProperties.getInteger(CompiledScriptCache.class.getName() + ".maxSize", 256);
+
+    public static final CompiledScriptCache INSTANCE = new CompiledScriptCache(MAX_SIZE);
+
+    private final int maxSize;
+
+    private final Map<Key, Class<? extends Script>> entries;
+
+    CompiledScriptCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Class<? extends Script>> eldest) {
+                return size() > CompiledScriptCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Evaluates the given script, re-using a previously compiled class when possible.
+     *
+     * @param secureScript the script to evaluate
+     * @param loader the parent class loader
+     * @param binding the binding with the script variables
+     * @return the value returned by the script
+     * @throws Exception if the script is not approved, fails to compile, or fails to run
+     */
+    public Object evaluate(@NonNull SecureGroovyScript secureScript, @NonNull ClassLoader loader, @NonNull Binding binding)
+            throws Exception {
+        if (maxSize <= 0 || !secureScript.isSandbox()
+                || (secureScript.getClasspath() != null && !secureScript.getClasspath().isEmpty())) {
+            // approved by an administrator, script-security checks it is still approved
+            return secureScript.evaluate(loader, binding, null);
+        }
+        final Class<? extends Script> scriptClass = getOrCompile(new Key(secureScript.getScript(), loader));
+        if (scriptClass == null) {
+            // not a plain script (e.g. the text only declares a class), let script-security handle it
+            return secureScript.evaluate(loader, binding, null);
+        }
+        final Script script = InvokerHelper.createScript(scriptClass, binding);
+        final ApprovalContext context = ApprovalContext.create();
+        try (GroovySandbox.Scope scope = new GroovySandbox().withApprovalContext(context).enter()) {
+            return script.run();
+        } catch (RejectedAccessException e) {
+            throw ScriptApproval.get().accessRejected(e, context);
+        }
+    }
+
+    /**
+     * Removes every compiled class from the cache.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * @return number of compiled classes currently cached
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private Class<? extends Script> getOrCompile(Key key) {
+        synchronized (entries) {
+            if (entries.containsKey(key)) {
+                return entries.get(key);
+            }
+        }
+        // compile outside the lock, a concurrent compilation of the same script is harmless
+        final Class<? extends Script> scriptClass = compile(key);
+        synchronized (entries) {
+            if (entries.containsKey(key)) {
+                return entries.get(key);
+            }
+            entries.put(key, scriptClass);
+        }
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine(String.format("Compiled and cached script class %s", scriptClass));
+        }
+        return scriptClass;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<? extends Script> compile(Key key) {
+        final GroovyClassLoader groovyClassLoader = new GroovyClassLoader(
+                GroovySandbox.createSecureClassLoader(key.loader), GroovySandbox.createSecureCompilerConfiguration());
+        final Class<?> clazz = groovyClassLoader.parseClass(key.text);
+        return Script.class.isAssignableFrom(clazz) ? (Class<? extends Script>) clazz : null;
+    }
+
+    /**
+     * Cache key. The parent class loader is compared by identity, as it changes when plug-ins are
+     * installed dynamically.
+     */
+    private static final class Key {
+        private final String text;
+        private final ClassLoader loader;
+        private final int hash;
+
+        Key(String text, ClassLoader loader) {
+            this.text = text;
+            this.loader = loader;
+            this.hash = Objects.hash(text, System.identityHashCode(loader));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            final Key other = (Key) obj;
+            return loader == other.loader && text.equals(other.text);
+        }
+    }
+}
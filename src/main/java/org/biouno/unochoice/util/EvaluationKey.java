@@ -0,0 +1,195 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.util;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.biouno.unochoice.model.GroovyScript;
+import org.biouno.unochoice.model.Script;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import jenkins.model.Jenkins;
+
+/**
+ * Identifies the evaluation of a script: the parameter being evaluated, the job it belongs to, a fingerprint of
+ * its script, the normalized values of the referenced parameters, and the user running it. Two evaluations with
+ * equal keys are expected to produce the same result.
+ *
+ * <p>Scripts run with the permissions of the user, so their results are only shared between the evaluations of
+ * the same user, unless the key is explicitly created for every user (see
+ * {@link #EvaluationKey(String, String, Script, Map, String)}).</p>
+ *
+ * @since 2.8.10
+ */
+public final class EvaluationKey {
+
+    private final String parameterId;
+    private final String job;
+    private final String scriptFingerprint;
+    private final SortedMap<String, String> inputs;
+    private final String user;
+    private final int hash;
+
+    /**
+     * Creates the key of an evaluation run by the current user.
+     *
+     * @param parameterId the parameter identity (its random name), or {@code null} for keys shared across parameters
+     * @param script the script being evaluated
+     * @param inputs the values of the referenced parameters
+     */
+    public EvaluationKey(@CheckForNull String parameterId, @CheckForNull Script script, @CheckForNull Map<?, ?> inputs) {
+        this(parameterId, null, script, inputs);
+    }
+
+    /**
+     * Creates the key of an evaluation run by the current user.
+     *
+     * <p>Copied jobs keep the random names of their parameters, so keys of a single parameter also carry the job
+     * it belongs to, as its script may read the job and its builds.</p>
+     *
+     * @param parameterId the parameter identity (its random name), or {@code null} for keys shared across parameters
+     * @param job the full name of the job of the parameter, or {@code null} if unknown or shared across jobs
+     * @param script the script being evaluated
+     * @param inputs the values of the referenced parameters
+     */
+    public EvaluationKey(@CheckForNull String parameterId, @CheckForNull String job, @CheckForNull Script script,
+            @CheckForNull Map<?, ?> inputs) {
+        this(parameterId, job, script, inputs, Jenkins.getAuthentication2().getName());
+    }
+
+    /**
+     * @param parameterId the parameter identity (its random name), or {@code null} for keys shared across parameters
+     * @param script the script being evaluated
+     * @param inputs the values of the referenced parameters
+     * @param user name of the user running the evaluation, or {@code null} for results served to every user
+     */
+    public EvaluationKey(@CheckForNull String parameterId, @CheckForNull Script script, @CheckForNull Map<?, ?> inputs,
+            @CheckForNull String user) {
+        this(parameterId, null, script, inputs, user);
+    }
+
+    /**
+     * @param parameterId the parameter identity (its random name), or {@code null} for keys shared across parameters
+     * @param job the full name of the job of the parameter, or {@code null} if unknown or shared across jobs
+     * @param script the script being evaluated
+     * @param inputs the values of the referenced parameters
+     * @param user name of the user running the evaluation, or {@code null} for results served to every user
+     */
+    public EvaluationKey(@CheckForNull String parameterId, @CheckForNull String job, @CheckForNull Script script,
+            @CheckForNull Map<?, ?> inputs, @CheckForNull String user) {
+        this.parameterId = parameterId;
+        this.job = job;
+        this.scriptFingerprint = fingerprint(script);
+        this.inputs = normalize(inputs);
+        this.user = user;
+        this.hash = Objects.hash(parameterId, job, scriptFingerprint, this.inputs, user);
+    }
+
+    public String getParameterId() {
+        return parameterId;
+    }
+
+    public String getJob() {
+        return job;
+    }
+
+    public String getScriptFingerprint() {
+        return scriptFingerprint;
+    }
+
+    public Map<String, String> getInputs() {
+        return Collections.unmodifiableMap(inputs);
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    /**
+     * Computes a fingerprint of the given script, that changes whenever its text, its fallback, or its
+     * sandbox flags change.
+     *
+     * @param script a script
+     * @return script fingerprint
+     */
+    public static @NonNull String fingerprint(@CheckForNull Script script) {
+        if (script == null) {
+            return "";
+        }
+        if (script instanceof GroovyScript) {
+            final GroovyScript groovyScript = (GroovyScript) script;
+            return "GroovyScript[" + fingerprint(groovyScript.getScript()) + "][" + fingerprint(groovyScript.getFallbackScript()) + "]";
+        }
+        return script.getClass().getName() + "[" + script + "]";
+    }
+
+    private static String fingerprint(SecureGroovyScript secureGroovyScript) {
+        if (secureGroovyScript == null) {
+            return "";
+        }
+        return secureGroovyScript.isSandbox() + ":" + secureGroovyScript.getScript();
+    }
+
+    private static SortedMap<String, String> normalize(Map<?, ?> inputs) {
+        final SortedMap<String, String> normalized = new TreeMap<>();
+        if (inputs != null) {
+            for (Map.Entry<?, ?> entry : inputs.entrySet()) {
+                normalized.put(String.valueOf(entry.getKey()), String.valueOf(entry.getValue()));
+            }
+        }
+        return normalized;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof EvaluationKey))
+            return false;
+        final EvaluationKey other = (EvaluationKey) obj;
+        return hash == other.hash
+                && Objects.equals(parameterId, other.parameterId)
+                && Objects.equals(job, other.job)
+                && scriptFingerprint.equals(other.scriptFingerprint)
+                && inputs.equals(other.inputs)
+                && Objects.equals(user, other.user);
+    }
+
+    @Override
+    public String toString() {
+        return "EvaluationKey [parameterId=" + parameterId + ", job=" + job + ", inputs=" + inputs + ", user=" + user + "]";
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * <p>Keeps track of the evaluations requested by each page of the UI, so that superseded evaluations are cancelled
+ * instead of spending CPU on results nobody will see.</p>
+ *
+ * <p>Each page numbers its requests. When a request arrives with a higher sequence number than the one being
+ * served for the same page, the older one is cancelled (see {@link Cancellation}). Requests arriving while a request
+ * with a higher sequence number is being served are superseded already, and not evaluated at all. A page can also
+ * cancel its evaluation when it is closed. Pages are forgotten once their evaluation completes.</p>
+ *
+ * @since 2.8.10
+ */
+public final class InFlightEvaluations {
+
+    private static final Logger LOGGER = Logger.getLogger(InFlightEvaluations.class.getName());
+
+    public static final InFlightEvaluations INSTANCE = new InFlightEvaluations();
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    InFlightEvaluations() {
+    }
+
+    /**
+     * Starts an evaluation for the given page, cancelling the one in progress for it, if older.
+     *
+     * @param key identifies the page (and the user and job it was requested for)
+     * @param sequence sequence number of the request within the page
+     * @return the cancellation of the new evaluation, or {@code null} if a newer request of the page was seen
+     *     already. It must be passed to {@link #finish(String, Cancellation)} once the evaluation completes
+     */
+    @CheckForNull
+    public Cancellation start(@NonNull String key, long sequence) {
+        final Cancellation cancellation = new Cancellation();
+        final Entry previous;
+        synchronized (entries) {
+            previous = entries.get(key);
+            if (previous != null && previous.sequence >= sequence) {
+                return null;
+            }
+            entries.put(key, new Entry(sequence, cancellation));
+        }
+        if (previous != null) {
+            if (LOGGER.isLoggable(Level.FINE) && !previous.cancellation.isCancelled()) {
+                LOGGER.fine(String.format("Cancelling evaluation %d of %s, superseded by %d", previous.sequence, key,
+                        sequence));
+            }
+            previous.cancellation.cancel();
+        }
+        return cancellation;
+    }
+
+    /**
+     * Marks the evaluation as completed.
+     *
+     * @param key identifies the page
+     * @param cancellation the cancellation returned by {@link #start(String, long)}
+     */
+    public void finish(@NonNull String key, @NonNull Cancellation cancellation) {
+        synchronized (entries) {
+            final Entry entry = entries.get(key);
+            if (entry != null && entry.cancellation == cancellation) {
+                entries.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Cancels the evaluation in progress for the given page, and forgets the page.
+     *
+     * @param key identifies the page
+     */
+    public void cancel(@NonNull String key) {
+        final Entry entry;
+        synchronized (entries) {
+            entry = entries.remove(key);
+        }
+        if (entry != null) {
+            entry.cancellation.cancel();
+        }
+    }
+
+    private static final class Entry {
+        private final long sequence;
+        private final Cancellation cancellation;
+
+        Entry(long sequence, Cancellation cancellation) {
+            this.sequence = sequence;
+            this.cancellation = cancellation;
+        }
+    }
+}
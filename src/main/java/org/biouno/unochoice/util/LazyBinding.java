@@ -0,0 +1,133 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.util;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import org.biouno.unochoice.util.ScriptParameters.LazyVariables;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import groovy.lang.Binding;
+
+/**
+ * <p>A {@link Binding} that computes some of its variables only when the script reads them.</p>
+ *
+ * <p>Variables set in the binding always take precedence. Otherwise, the parameters are consulted, and then the
+ * lazy variables in order. The first that defines the variable provides its value, which is then stored in the
+ * binding. The parameters are neither copied nor modified, and only the values read by the script, be they
+ * parameters or lazy variables, go through the value mapper (e.g. to expand environment variables).</p>
+ *
+ * @since 2.8.10
+ */
+public class LazyBinding extends Binding {
+
+    private final Map<?, ?> parameters;
+
+    private final UnaryOperator<Object> valueMapper;
+
+    private final List<LazyVariables> lazyVariables;
+
+    /**
+     * @param lazyVariables lazy variables, in lookup order
+     */
+    public LazyBinding(@NonNull List<LazyVariables> lazyVariables) {
+        this(Collections.emptyMap(), UnaryOperator.identity(), lazyVariables);
+    }
+
+    /**
+     * @param parameters read-only parameters, consulted before the lazy variables. {@code null} values are ignored
+     * @param valueMapper function applied to the value of a parameter or lazy variable when the script first reads it
+     * @param lazyVariables lazy variables, in lookup order
+     */
+    public LazyBinding(@NonNull Map<?, ?> parameters, @NonNull UnaryOperator<Object> valueMapper,
+            @NonNull List<LazyVariables> lazyVariables) {
+        super();
+        this.parameters = parameters;
+        this.valueMapper = valueMapper;
+        this.lazyVariables = lazyVariables;
+    }
+
+    @Override
+    public Object getVariable(String name) {
+        if (!super.hasVariable(name)) {
+            final Object parameter = parameters.get(name);
+            if (parameter != null) {
+                final Object value = valueMapper.apply(parameter);
+                super.setVariable(name, value);
+                return value;
+            }
+            for (LazyVariables lazy : lazyVariables) {
+                if (lazy.mayDefine(name)) {
+                    final Map<String, ?> variables = lazy.get();
+                    if (variables.containsKey(name)) {
+                        final Object value = valueMapper.apply(variables.get(name));
+                        super.setVariable(name, value);
+                        return value;
+                    }
+                }
+            }
+        }
+        // throws MissingPropertyException when the variable is not defined at all
+        return super.getVariable(name);
+    }
+
+    @Override
+    public boolean hasVariable(String name) {
+        if (super.hasVariable(name) || parameters.get(name) != null) {
+            return true;
+        }
+        for (LazyVariables lazy : lazyVariables) {
+            if (lazy.mayDefine(name) && lazy.get().containsKey(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Computes every lazy variable, as the script is accessing the whole binding.
+     */
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Map getVariables() {
+        for (Map.Entry<?, ?> parameter : parameters.entrySet()) {
+            final String name = String.valueOf(parameter.getKey());
+            if (parameter.getValue() != null && !super.hasVariable(name)) {
+                super.setVariable(name, valueMapper.apply(parameter.getValue()));
+            }
+        }
+        for (LazyVariables lazy : lazyVariables) {
+            for (Map.Entry<String, ?> variable : lazy.get().entrySet()) {
+                if (!super.hasVariable(variable.getKey())) {
+                    super.setVariable(variable.getKey(), valueMapper.apply(variable.getValue()));
+                }
+            }
+        }
+        return super.getVariables();
+    }
+}
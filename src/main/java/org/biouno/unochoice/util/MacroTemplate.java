@@ -0,0 +1,127 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * <p>A text with {@code $VARIABLE} and {@code ${VARIABLE}} macros, parsed once and expanded many times.</p>
+ *
+ * <p>Expansion follows {@link hudson.Util#replaceMacro(String, Map)}: {@code $$} is replaced by {@code $}, and
+ * macros of variables that are not defined are left as they are.</p>
+ *
+ * @since 2.8.10
+ */
+public final class MacroTemplate {
+
+    /**
+     * Same pattern as used by {@link hudson.Util#replaceMacro(String, Map)}.
+     */
+    private static final Pattern VARIABLE = Pattern.compile("\\$([A-Za-z0-9_]+|\\{[A-Za-z0-9_.]+\\}|\\$)");
+
+    private final String text;
+    /**
+     * Literal texts and variables, or {@code null} when the text has no macros.
+     */
+    private final List<Segment> segments;
+
+    private MacroTemplate(String text, List<Segment> segments) {
+        this.text = text;
+        this.segments = segments;
+    }
+
+    /**
+     * Parses the given text.
+     *
+     * @param text a text with macros
+     * @return the parsed template
+     */
+    public static @NonNull MacroTemplate compile(@CheckForNull String text) {
+        if (text == null || text.indexOf('$') < 0) {
+            return new MacroTemplate(text, null);
+        }
+        final List<Segment> segments = new ArrayList<>();
+        final Matcher m = VARIABLE.matcher(text);
+        int idx = 0;
+        while (m.find()) {
+            if (m.start() > idx) {
+                segments.add(new Segment(text.substring(idx, m.start()), null));
+            }
+            String key = m.group().substring(1);
+            if (key.charAt(0) == '$') {
+                segments.add(new Segment("$", null));
+            } else {
+                if (key.charAt(0) == '{') {
+                    key = key.substring(1, key.length() - 1);
+                }
+                segments.add(new Segment(m.group(), key));
+            }
+            idx = m.end();
+        }
+        if (idx < text.length()) {
+            segments.add(new Segment(text.substring(idx), null));
+        }
+        return new MacroTemplate(text, Collections.unmodifiableList(segments));
+    }
+
+    /**
+     * Expands the macros of this template.
+     *
+     * @param variables values of the variables
+     * @return the expanded text
+     */
+    public String expand(@CheckForNull Map<?, ?> variables) {
+        if (segments == null) {
+            return text;
+        }
+        final StringBuilder sb = new StringBuilder(text.length());
+        for (Segment segment : segments) {
+            final Object value = segment.variable != null && variables != null ? variables.get(segment.variable) : null;
+            sb.append(value != null ? value.toString() : segment.text);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * A literal text, or a variable with the text of its macro.
+     */
+    private static final class Segment {
+        private final String text;
+        private final String variable;
+
+        Segment(String text, String variable) {
+            this.text = text;
+            this.variable = variable;
+        }
+    }
+}
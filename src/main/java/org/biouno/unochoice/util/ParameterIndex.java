@@ -0,0 +1,247 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.Items;
+import hudson.model.Job;
+import hudson.model.Saveable;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.SaveableListener;
+import hudson.security.ACL;
+import jenkins.model.Jenkins;
+
+/**
+ * <p>An index from the random name (UUID) of Active Choices parameters to the full name of the job
+ * that defines them.</p>
+ *
+ * <p>The index is built with a single scan of the instance the first time it is needed, and then kept
+ * up to date by listening to items being created, copied, saved, renamed, moved and deleted.</p>
+ *
+ * @since 2.8.10
+ */
+public final class ParameterIndex {
+
+    private static final Logger LOGGER = Logger.getLogger(ParameterIndex.class.getName());
+
+    public static final ParameterIndex INSTANCE = new ParameterIndex();
+
+    /**
+     * Parameter random name to job full name.
+     */
+    private final Map<String, String> jobByParameter = new HashMap<>();
+    /**
+     * Job full name to the random names of its parameters.
+     */
+    private final Map<String, Set<String>> parametersByJob = new HashMap<>();
+
+    private boolean initialized;
+
+    ParameterIndex() {
+    }
+
+    /**
+     * Gets the full name of the job that defines the given parameter.
+     *
+     * @param parameterUUID parameter random name
+     * @return the job full name, or {@code null} if no job defines this parameter
+     */
+    public @CheckForNull String getJobFullName(@NonNull String parameterUUID) {
+        synchronized (this) {
+            if (!initialized) {
+                rebuild();
+            }
+            return jobByParameter.get(parameterUUID);
+        }
+    }
+
+    /**
+     * Gets the full names of the jobs that define Active Choices parameters.
+     *
+     * @return a copy of the job full names
+     */
+    public @NonNull Set<String> getJobFullNames() {
+        synchronized (this) {
+            if (!initialized) {
+                rebuild();
+            }
+            return new HashSet<>(parametersByJob.keySet());
+        }
+    }
+
+    /**
+     * Indexes, or re-indexes, the parameters of the given item.
+     *
+     * @param item an item
+     */
+    public synchronized void index(@NonNull Item item) {
+        if (!initialized) {
+            // will be picked up when the index is built
+            return;
+        }
+        removeJob(item.getFullName());
+        addJob(item);
+    }
+
+    /**
+     * Removes the given item, and any item within it, from the index.
+     *
+     * @param fullName item full name
+     */
+    public synchronized void remove(@NonNull String fullName) {
+        if (!initialized) {
+            return;
+        }
+        final String prefix = fullName + "/";
+        final Iterator<String> it = parametersByJob.keySet().iterator();
+        while (it.hasNext()) {
+            final String jobFullName = it.next();
+            if (jobFullName.equals(fullName) || jobFullName.startsWith(prefix)) {
+                removeParameters(jobFullName, parametersByJob.get(jobFullName));
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Discards the index, so that it is built again the next time it is needed.
+     */
+    public synchronized void invalidate() {
+        initialized = false;
+        jobByParameter.clear();
+        parametersByJob.clear();
+    }
+
+    private void rebuild() {
+        jobByParameter.clear();
+        parametersByJob.clear();
+        final long start = System.currentTimeMillis();
+        for (Job<?, ?> job : Items.allItems2(ACL.SYSTEM2, Jenkins.get(), Job.class)) {
+            addJob(job);
+        }
+        initialized = true;
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine(String.format("Indexed %d Active Choices parameters in %d ms", jobByParameter.size(),
+                    System.currentTimeMillis() - start));
+        }
+    }
+
+    private void addJob(Item item) {
+        final Set<String> parameters = getParameterUUIDs(item);
+        if (parameters.isEmpty()) {
+            return;
+        }
+        final String fullName = item.getFullName();
+        parametersByJob.put(fullName, parameters);
+        for (String parameter : parameters) {
+            jobByParameter.put(parameter, fullName);
+        }
+    }
+
+    private void removeJob(String fullName) {
+        removeParameters(fullName, parametersByJob.remove(fullName));
+    }
+
+    private void removeParameters(String fullName, Set<String> parameters) {
+        if (parameters != null) {
+            for (String parameter : parameters) {
+                jobByParameter.remove(parameter, fullName);
+            }
+        }
+    }
+
+    private static Set<String> getParameterUUIDs(Item item) {
+        if (item instanceof Job) {
+            return new LinkedHashSet<>(Utils.getParameterUUIDs((Job<?, ?>) item));
+        }
+        return Collections.emptySet();
+    }
+
+    /**
+     * Keeps the index up to date when items are created, renamed, moved or deleted.
+     */
+    @Extension
+    public static final class ItemListenerImpl extends ItemListener {
+        @Override
+        public void onLoaded() {
+            // jobs were (re)loaded from disk
+            INSTANCE.invalidate();
+        }
+
+        @Override
+        public void onCreated(Item item) {
+            INSTANCE.index(item);
+        }
+
+        @Override
+        public void onCopied(Item src, Item item) {
+            INSTANCE.index(item);
+        }
+
+        @Override
+        public void onUpdated(Item item) {
+            INSTANCE.index(item);
+        }
+
+        @Override
+        public void onDeleted(Item item) {
+            INSTANCE.remove(item.getFullName());
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            // also called for every item within a moved or renamed folder
+            INSTANCE.remove(oldFullName);
+            INSTANCE.index(item);
+        }
+    }
+
+    /**
+     * Keeps the index up to date when the configuration of an item is saved.
+     */
+    @Extension
+    public static final class SaveableListenerImpl extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof Item) {
+                INSTANCE.index((Item) o);
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.kohsuke.stapler.Stapler;
+import org.kohsuke.stapler.StaplerRequest2;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * <p>Memoizes script evaluations for the duration of the current Stapler request.</p>
+ *
+ * <p>A page renders the same parameter through several Jelly views and getters (choices, choices as string, item
+ * counts), each of which would otherwise evaluate the script again. Within one request, every evaluation with the
+ * same {@link EvaluationKey} returns the value of the first one. Outside of a request (e.g. when a build is
+ * triggered, or on the threads of the {@link ScriptExecutor}) nothing is memoized.</p>
+ *
+ * <p>Evaluations can also be started ahead on the {@link ScriptExecutor} (see {@link #prefetch(EvaluationKey,
+ * Callable, int)}), in which case the first read in the request waits for their result.</p>
+ *
+ * @since 2.8.10
+ */
+public final class RequestMemo {
+
+    private static final String ATTRIBUTE = RequestMemo.class.getName();
+
+    private RequestMemo() {
+    }
+
+    /**
+     * Returns the value memoized in the current request for the given key, or calls the loader and memoizes its
+     * value. Failures are not memoized.
+     *
+     * @param key identifies the evaluation
+     * @param loader evaluates the script
+     * @return the memoized value, or the value returned by the loader
+     * @throws Exception if the loader fails
+     */
+    public static Object get(@NonNull EvaluationKey key, @NonNull Callable<Object> loader) throws Exception {
+        final Map<EvaluationKey, Object> memo = getMemo();
+        if (memo == null) {
+            return loader.call();
+        }
+        if (memo.containsKey(key)) {
+            final Object value = memo.get(key);
+            if (!(value instanceof Pending)) {
+                return value;
+            }
+            try {
+                final Object result = ((Pending) value).await();
+                memo.put(key, result);
+                return result;
+            } catch (Exception e) {
+                memo.remove(key);
+                throw e;
+            }
+        }
+        final Object value = loader.call();
+        memo.put(key, value);
+        return value;
+    }
+
+    /**
+     * Starts the given evaluation on the {@link ScriptExecutor}, unless it is already memoized in the current
+     * request. Does nothing outside of a request, or when the executor is saturated, in which case the evaluation
+     * happens when it is first read.
+     *
+     * @param key identifies the evaluation
+     * @param loader evaluates the script
+     * @param timeoutSeconds time to wait for the result once it is read, zero or less to wait indefinitely
+     */
+    public static void prefetch(@NonNull EvaluationKey key, @NonNull Callable<Object> loader, int timeoutSeconds) {
+        final Map<EvaluationKey, Object> memo = getMemo();
+        if (memo == null || memo.containsKey(key)) {
+            return;
+        }
+        try {
+            memo.put(key, new Pending(ScriptExecutor.INSTANCE.submit(loader), timeoutSeconds));
+        } catch (RejectedExecutionException e) {
+            // evaluated on the request thread instead
+        }
+    }
+
+    /**
+     * @return {@code true} if the value for the given key was already memoized in the current request
+     */
+    public static boolean contains(@NonNull EvaluationKey key) {
+        final Map<EvaluationKey, Object> memo = getMemo();
+        return memo != null && memo.containsKey(key);
+    }
+
+    /**
+     * An evaluation started ahead of its first read.
+     */
+    private static final class Pending {
+        private final Future<Object> future;
+        private final int timeoutSeconds;
+
+        Pending(Future<Object> future, int timeoutSeconds) {
+            this.future = future;
+            this.timeoutSeconds = timeoutSeconds;
+        }
+
+        Object await() throws Exception {
+            try {
+                return timeoutSeconds > 0 ? future.get(timeoutSeconds, TimeUnit.SECONDS) : future.get();
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                throw e;
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+                throw e;
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * @return the memo of the current request, or {@code null} when not serving a request. Requests are served by
+     *     a single thread, so the memo is not synchronized
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<EvaluationKey, Object> getMemo() {
+        final StaplerRequest2 request = Stapler.getCurrentRequest2();
+        if (request == null) {
+            return null;
+        }
+        Map<EvaluationKey, Object> memo = (Map<EvaluationKey, Object>) request.getAttribute(ATTRIBUTE);
+        if (memo == null) {
+            memo = new HashMap<>();
+            request.setAttribute(ATTRIBUTE, memo);
+        }
+        return memo;
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.security.core.Authentication;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+
+/**
+ * <p>A bounded executor used to evaluate scripts away from the request threads.</p>
+ *
+ * <p>Evaluations run with the authentication of the caller, and are interrupted once their timeout
+ * expires, so that a single slow script cannot tie up the request threads of Jenkins. When all threads
+ * are busy and the queue is full, new evaluations are rejected instead of piling up.</p>
+ *
+ * <p>Evaluations submitted from a thread of this executor (e.g. a script that triggers the evaluation
+ * of another parameter, or a background refresh) are run inline, to avoid exhausting the pool. Their
+ * timeout still applies: the thread is interrupted once it expires.</p>
+ *
+ * <p>Evaluations submitted while a {@link Cancellation} is entered are cancelled along with it, except for
+ * background refreshes (see {@link #submitDetached(Callable)}).</p>
+ *
+ * @since 2.8.10
+ */
+public final class ScriptExecutor {
+
+    /**
+     * Default timeout for script evaluations, in seconds. Can be overridden per parameter.
+     * A value of zero or less disables the timeout, and evaluations run on the calling thread.
+     */
+    public static final int DEFAULT_TIMEOUT = SystemProperties.getInteger(ScriptExecutor.class.getName() + ".timeout", 60);
+
+    private static final int POOL_SIZE = SystemProperties.getInteger(ScriptExecutor.class.getName() + ".poolSize",
+            Math.max(4, Runtime.getRuntime().availableProcessors()));
+
+    private static final int QUEUE_SIZE = SystemProperties.getInteger(ScriptExecutor.class.getName() + ".queueSize", 100);
+
+    public static final ScriptExecutor INSTANCE = new ScriptExecutor(POOL_SIZE, QUEUE_SIZE);
+
+    private static final ThreadLocal<Boolean> IN_EXECUTOR = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private final ThreadPoolExecutor executor;
+
+    ScriptExecutor(int poolSize, int queueSize) {
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)),
+                new NamingThreadFactory(new DaemonThreadFactory(), "Active Choices script evaluation"));
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Calls the given task on the executor, waiting at most {@code timeoutSeconds} for its result.
+     *
+     * @param task task to be called
+     * @param timeoutSeconds timeout in seconds, zero or less to call the task on the current thread without timeout
+     * @param <V> type of the result
+     * @return the value returned by the task
+     * @throws TimeoutException if the task did not complete in time. The task is interrupted
+     * @throws java.util.concurrent.RejectedExecutionException if the executor is saturated
+     * @throws java.util.concurrent.CancellationException if the current {@link Cancellation} was cancelled
+     * @throws Exception if the task failed
+     */
+    public <V> V call(@NonNull Callable<V> task, int timeoutSeconds) throws Exception {
+        if (timeoutSeconds <= 0) {
+            Cancellation.checkCancelled();
+            return task.call();
+        }
+        if (IN_EXECUTOR.get()) {
+            Cancellation.checkCancelled();
+            return callInline(task, timeoutSeconds);
+        }
+        final Cancellation cancellation = Cancellation.current();
+        final Future<V> future = submit(task);
+        try {
+            return future.get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw e;
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        } finally {
+            if (cancellation != null) {
+                cancellation.untrack(future);
+            }
+        }
+    }
+
+    /**
+     * Calls the given task on the current thread, a thread of this executor, interrupting it once the timeout
+     * expires.
+     */
+    private static <V> V callInline(Callable<V> task, int timeoutSeconds) throws Exception {
+        final Thread thread = Thread.currentThread();
+        final InlineCall call = new InlineCall();
+        final ScheduledFuture<?> watcher = Timer.get().schedule(() -> call.expire(thread), timeoutSeconds,
+                TimeUnit.SECONDS);
+        try {
+            final V value = task.call();
+            if (!call.finish()) {
+                return value;
+            }
+            // otherwise the task returned despite the interruption, too late
+        } catch (Exception e) {
+            if (!call.finish()) {
+                throw e;
+            }
+        } finally {
+            call.finish();
+            watcher.cancel(false);
+        }
+        throw new TimeoutException("Evaluation did not complete in " + timeoutSeconds + " seconds");
+    }
+
+    /**
+     * State of a task called inline, shared with the watcher that interrupts it.
+     */
+    private static final class InlineCall {
+        private boolean finished;
+        private boolean expired;
+
+        synchronized void expire(Thread thread) {
+            if (!finished) {
+                expired = true;
+                thread.interrupt();
+            }
+        }
+
+        /**
+         * Marks the call as finished, so that the watcher no longer interrupts it.
+         *
+         * @return {@code true} if the call was interrupted because it expired. The interruption is then cleared, so
+         *     that it does not leak to the code that follows on the same thread
+         */
+        synchronized boolean finish() {
+            if (!finished) {
+                finished = true;
+                if (expired) {
+                    Thread.interrupted();
+                }
+            }
+            return expired;
+        }
+    }
+
+    /**
+     * Submits the given task, to be called with the authentication of the current thread. The task is cancelled
+     * along with the current {@link Cancellation}, if any.
+     *
+     * @param task task to be called
+     * @param <V> type of the result
+     * @return future of the task
+     * @throws java.util.concurrent.CancellationException if the current {@link Cancellation} was cancelled
+     */
+    public <V> Future<V> submit(@NonNull Callable<V> task) {
+        Cancellation.checkCancelled();
+        final Cancellation cancellation = Cancellation.current();
+        final Future<V> future = submit(task, cancellation);
+        if (cancellation != null) {
+            cancellation.track(future);
+        }
+        return future;
+    }
+
+    /**
+     * Submits the given task, to be called with the authentication of the current thread, regardless of the
+     * current {@link Cancellation}. Used for work that outlives the request, like refreshing cached results.
+     *
+     * @param task task to be called
+     * @param <V> type of the result
+     * @return future of the task
+     */
+    public <V> Future<V> submitDetached(@NonNull Callable<V> task) {
+        return submit(task, null);
+    }
+
+    private <V> Future<V> submit(Callable<V> task, Cancellation cancellation) {
+        final Authentication authentication = Jenkins.getAuthentication2();
+        return executor.submit(() -> {
+            IN_EXECUTOR.set(Boolean.TRUE);
+            try (ACLContext ignored = ACL.as2(authentication);
+                    Cancellation.Scope scope = cancellation != null ? cancellation.enter() : Cancellation.NO_SCOPE) {
+                return task.call();
+            } finally {
+                IN_EXECUTOR.remove();
+            }
+        });
+    }
+
+    /**
+     * @return {@code true} if the current thread is a thread of this executor
+     */
+    public static boolean isExecutorThread() {
+        return IN_EXECUTOR.get();
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.util;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * <p>The variables of a script evaluation. Entries of the map are bound eagerly, while lazy variables are only
+ * computed if the script reads them (see {@link LazyBinding}).</p>
+ *
+ * <p>Lazy variables are looked up in the order they were added, and never shadow an entry of the map.</p>
+ *
+ * @since 2.8.10
+ */
+public class ScriptParameters extends LinkedHashMap<Object, Object> {
+
+    private static final long serialVersionUID = -2718245631190842316L;
+
+    private final transient List<LazyVariables> lazyVariables = new ArrayList<>();
+
+    public ScriptParameters() {
+        super();
+    }
+
+    /**
+     * Creates a copy of the given map, keeping its lazy variables when it is a {@link ScriptParameters}.
+     *
+     * @param parameters parameters to copy
+     */
+    public ScriptParameters(Map<?, ?> parameters) {
+        super(parameters);
+        addLazyVariablesOf(parameters);
+    }
+
+    /**
+     * Adds a lazy variable.
+     *
+     * @param name variable name
+     * @param supplier computes the variable value, or returns {@code null} if the variable is not defined
+     * @return this object
+     */
+    public ScriptParameters addLazyVariable(@NonNull String name, @NonNull Supplier<?> supplier) {
+        lazyVariables.add(new LazyVariables(name, () -> {
+            final Object value = supplier.get();
+            return value != null ? Collections.singletonMap(name, value) : Collections.emptyMap();
+        }));
+        return this;
+    }
+
+    /**
+     * Adds a group of lazy variables, computed together the first time a variable that is not bound eagerly is read.
+     *
+     * @param supplier computes the variables
+     * @return this object
+     */
+    public ScriptParameters addLazyVariables(@NonNull Supplier<Map<String, ?>> supplier) {
+        lazyVariables.add(new LazyVariables(null, supplier));
+        return this;
+    }
+
+    /**
+     * Adds the lazy variables of the given map, if it is a {@link ScriptParameters}.
+     *
+     * @param parameters parameters whose lazy variables are added
+     * @return this object
+     */
+    public ScriptParameters addLazyVariablesOf(Map<?, ?> parameters) {
+        lazyVariables.addAll(lazyVariablesOf(parameters));
+        return this;
+    }
+
+    /**
+     * @param parameters script parameters
+     * @return the lazy variables of the given map, in lookup order, or an empty list if it is not a
+     * {@link ScriptParameters}
+     */
+    public static List<LazyVariables> lazyVariablesOf(Map<?, ?> parameters) {
+        if (parameters instanceof ScriptParameters) {
+            return Collections.unmodifiableList(((ScriptParameters) parameters).lazyVariables);
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Returns a read-only view of these parameters whose {@link Map#get(Object)} also looks up the lazy variables,
+     * in the same order as {@link LazyBinding}, e.g. to expand macros. Lazy variables are only computed when a
+     * name is not bound eagerly, and are not part of the entries of the view.
+     *
+     * @return a view of these parameters resolving the lazy variables
+     */
+    public Map<Object, Object> resolving() {
+        return new ResolvingView();
+    }
+
+    // lazy variables are not part of the equality of the parameters
+    @Override
+    public boolean equals(Object o) {
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+
+    private final class ResolvingView extends AbstractMap<Object, Object> {
+        @Override
+        public Object get(Object key) {
+            final Object value = ScriptParameters.this.get(key);
+            if (value != null || key == null) {
+                return value;
+            }
+            final String name = key.toString();
+            for (LazyVariables lazy : lazyVariables) {
+                if (lazy.mayDefine(name)) {
+                    final Map<String, ?> variables = lazy.get();
+                    if (variables.containsKey(name)) {
+                        return variables.get(name);
+                    }
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Set<Entry<Object, Object>> entrySet() {
+            return Collections.unmodifiableSet(ScriptParameters.this.entrySet());
+        }
+    }
+
+    /**
+     * Either a single named variable, or a group of variables whose names are only known once computed. The
+     * variables are computed at most once.
+     */
+    public static final class LazyVariables {
+        private final String name;
+        private final Supplier<Map<String, ?>> supplier;
+        private volatile Map<String, ?> value;
+
+        LazyVariables(@CheckForNull String name, @NonNull Supplier<Map<String, ?>> supplier) {
+            this.name = name;
+            this.supplier = supplier;
+        }
+
+        /**
+         * @param variable variable name
+         * @return {@code false} if these variables certainly do not include the given one, without computing them
+         */
+        public boolean mayDefine(String variable) {
+            return name == null || name.equals(variable);
+        }
+
+        /**
+         * @return the variables, computed on the first call
+         */
+        @NonNull
+        public Map<String, ?> get() {
+            Map<String, ?> result = value;
+            if (result == null) {
+                synchronized (this) {
+                    result = value;
+                    if (result == null) {
+                        result = supplier.get();
+                        if (result == null) {
+                            result = Collections.emptyMap();
+                        }
+                        value = result;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+}
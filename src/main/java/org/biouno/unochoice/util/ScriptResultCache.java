@@ -0,0 +1,217 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import jenkins.util.SystemProperties;
+
+/**
+ * <p>A size-bounded cache of script results, with a time-to-live per entry.</p>
+ *
+ * <p>Fresh entries are served from memory. Once an entry expires, its stale value is still served
+ * while a single background refresh computes the new value (stale-while-revalidate). Entries are
+ * evicted in least-recently-used order when the cache is full.</p>
+ *
+ * @since 2.8.10
+ */
+public final class ScriptResultCache {
+
+    private static final Logger LOGGER = Logger.getLogger(ScriptResultCache.class.getName());
+
+    /**
+     * Maximum number of results kept in memory.
+     */
+    static final int MAX_SIZE = SystemProperties.getInteger(ScriptResultCache.class.getName() + ".maxSize", 1000);
+
+    public static final ScriptResultCache INSTANCE = new ScriptResultCache(MAX_SIZE);
+
+    private final Map<EvaluationKey, Entry> entries;
+
+    ScriptResultCache(int maxSize) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<EvaluationKey, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Gets the cached result for the given key, computing it with the loader when there is none.
+     * When the cached result has expired, it is still returned, and refreshed in the background.
+     *
+     * @param key evaluation key
+     * @param ttlMillis time-to-live of the result, in milliseconds
+     * @param loader computes the result
+     * @return the cached or computed result
+     * @throws Exception if the loader fails
+     */
+    public Object get(@NonNull EvaluationKey key, long ttlMillis, @NonNull Callable<Object> loader) throws Exception {
+        final Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry == null) {
+            final Object value = loader.call();
+            put(key, value, ttlMillis);
+            return value;
+        }
+        if (entry.isExpired() && entry.startRefresh()) {
+            refresh(key, entry, ttlMillis, loader);
+        }
+        return entry.value;
+    }
+
+    /**
+     * Gets the cached result for the given key, even if expired.
+     *
+     * @param key evaluation key
+     * @return the cached result, or {@code null} if there is none
+     */
+    public Object getIfPresent(@NonNull EvaluationKey key) {
+        final Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        return entry != null ? entry.value : null;
+    }
+
+    /**
+     * Gets the cached result for the given key, only if it has not expired.
+     *
+     * @param key evaluation key
+     * @return the cached result, or {@code null} if there is none or it has expired
+     */
+    public Object getIfFresh(@NonNull EvaluationKey key) {
+        final Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        return entry != null && !entry.isExpired() ? entry.value : null;
+    }
+
+    /**
+     * Stores a result.
+     *
+     * @param key evaluation key
+     * @param value result
+     * @param ttlMillis time-to-live of the result, in milliseconds
+     */
+    public void put(@NonNull EvaluationKey key, Object value, long ttlMillis) {
+        synchronized (entries) {
+            entries.put(key, new Entry(value, System.currentTimeMillis() + ttlMillis));
+        }
+    }
+
+    /**
+     * Removes every result whose key matches the given predicate.
+     *
+     * @param predicate predicate
+     */
+    public void invalidate(@NonNull Predicate<EvaluationKey> predicate) {
+        synchronized (entries) {
+            final Iterator<EvaluationKey> it = entries.keySet().iterator();
+            while (it.hasNext()) {
+                if (predicate.test(it.next())) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes every result.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * @return number of cached results
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void refresh(EvaluationKey key, Entry entry, long ttlMillis, Callable<Object> loader) {
+        try {
+            ScriptExecutor.INSTANCE.submitDetached(() -> {
+                try {
+                    put(key, loader.call(), ttlMillis);
+                } catch (Exception e) {
+                    LOGGER.log(Level.WARNING, "Failed to refresh cached result for " + key, e);
+                } finally {
+                    entry.endRefresh();
+                }
+                return null;
+            });
+        } catch (RejectedExecutionException e) {
+            LOGGER.log(Level.FINE, "Executor busy, serving stale result for " + key, e);
+            entry.endRefresh();
+        }
+    }
+
+    private static final class Entry {
+        private final Object value;
+        private final long expiresAt;
+        private boolean refreshing;
+
+        Entry(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() > expiresAt;
+        }
+
+        synchronized boolean startRefresh() {
+            if (refreshing) {
+                return false;
+            }
+            refreshing = true;
+            return true;
+        }
+
+        synchronized void endRefresh() {
+            refreshing = false;
+        }
+    }
+}
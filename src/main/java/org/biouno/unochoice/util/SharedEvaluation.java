@@ -0,0 +1,129 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.util;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import jenkins.util.SystemProperties;
+
+/**
+ * <p>Shares the evaluations of identical scripts across parameters of different jobs, e.g. jobs generated
+ * from the same template and triggered together by an upstream job.</p>
+ *
+ * <p>Evaluations are shared by script fingerprint and referenced parameter values (an {@link EvaluationKey}
+ * without parameter identity), within a short {@link #WINDOW}. Scripts that read job specific variables, such
+ * as {@code jenkinsProject}, are remembered and never shared.</p>
+ *
+ * @since 2.8.10
+ */
+public final class SharedEvaluation {
+
+    /**
+     * Time, in seconds, the result of a shared evaluation is re-used. A value of zero or less disables sharing.
+     */
+    public static final int WINDOW = SystemProperties.getInteger(SharedEvaluation.class.getName() + ".window", 10);
+
+    private static final int MAX_SIZE = 1000;
+
+    private static final ThreadLocal<Boolean> ACTIVE = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    /**
+     * Fingerprints of the scripts known to read job specific variables.
+     */
+    private static final Map<String, Boolean> JOB_SPECIFIC = Collections.synchronizedMap(
+            new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > MAX_SIZE;
+                }
+            });
+
+    private SharedEvaluation() {
+    }
+
+    /**
+     * Calls the given task with sharing enabled for the evaluations it performs on the current thread.
+     *
+     * @param task task to be called
+     * @param <V> type of the result
+     * @return the value returned by the task
+     */
+    public static <V> V call(@NonNull Supplier<V> task) {
+        if (WINDOW <= 0 || ACTIVE.get()) {
+            return task.get();
+        }
+        ACTIVE.set(Boolean.TRUE);
+        try {
+            return task.get();
+        } finally {
+            ACTIVE.remove();
+        }
+    }
+
+    /**
+     * @param scriptFingerprint fingerprint of a script
+     * @return {@code true} if evaluations of the given script may be shared on the current thread
+     */
+    public static boolean isShareable(@NonNull String scriptFingerprint) {
+        return ACTIVE.get() && !JOB_SPECIFIC.containsKey(scriptFingerprint);
+    }
+
+    /**
+     * Remembers that the given script reads job specific variables, so its evaluations are no longer shared.
+     *
+     * @param scriptFingerprint fingerprint of a script
+     */
+    public static void markJobSpecific(@NonNull String scriptFingerprint) {
+        JOB_SPECIFIC.put(scriptFingerprint, Boolean.TRUE);
+    }
+
+    /**
+     * The result of a shared evaluation, and whether the script read job specific variables, in which case it
+     * only applies to the parameter that ran it.
+     */
+    public static final class Result {
+        private final Object value;
+        private final boolean jobSpecific;
+
+        public Result(Object value, boolean jobSpecific) {
+            this.value = value;
+            this.jobSpecific = jobSpecific;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+
+        public boolean isJobSpecific() {
+            return jobSpecific;
+        }
+    }
+}
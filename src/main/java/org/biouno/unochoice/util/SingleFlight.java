@@ -0,0 +1,125 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * <p>Coalesces concurrent evaluations with the same {@link EvaluationKey}.</p>
+ *
+ * <p>The first caller for a key runs the evaluation, and every other caller that arrives while it is
+ * still running waits for, and shares, its result (or its failure). Nothing is kept once the evaluation
+ * completes, so later callers start a new evaluation.</p>
+ *
+ * <p>If the evaluation is cancelled along with the request that started it (see {@link Cancellation}), the
+ * callers still waiting for it start a new one instead of sharing the cancellation.</p>
+ *
+ * @since 2.8.10
+ */
+public final class SingleFlight {
+
+    public static final SingleFlight INSTANCE = new SingleFlight();
+
+    private final ConcurrentMap<EvaluationKey, Flight> inFlight = new ConcurrentHashMap<>();
+
+    SingleFlight() {
+    }
+
+    /**
+     * Calls the given task, unless an evaluation with the same key is already running, in which case
+     * its result is returned instead.
+     *
+     * @param key evaluation key
+     * @param task task to be called
+     * @return the value returned by the task
+     * @throws Exception if the task failed
+     */
+    public Object call(@NonNull EvaluationKey key, @NonNull Callable<Object> task) throws Exception {
+        final Flight flight = new Flight();
+        final Flight existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            if (existing.owner == Thread.currentThread()) {
+                // re-entrant evaluation, waiting on ourselves would never return
+                return task.call();
+            }
+            try {
+                return existing.await();
+            } catch (CancellationException e) {
+                if (Cancellation.isCurrentCancelled()) {
+                    throw e;
+                }
+                // the caller that started the evaluation went away, evaluate again for this caller
+                return call(key, task);
+            }
+        }
+        try {
+            final Object value = task.call();
+            flight.future.complete(value);
+            return value;
+        } catch (Exception e) {
+            flight.future.completeExceptionally(e);
+            throw e;
+        } catch (Error e) {
+            flight.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * @return number of evaluations currently running
+     */
+    public int size() {
+        return inFlight.size();
+    }
+
+    private static final class Flight {
+        private final Thread owner = Thread.currentThread();
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        Object await() throws Exception {
+            try {
+                return future.get();
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw e;
+            }
+        }
+    }
+}
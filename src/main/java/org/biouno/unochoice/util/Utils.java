@@ -43,16 +43,17 @@ import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 
-import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.biouno.unochoice.AbstractUnoChoiceParameter;
 
 import hudson.model.Item;
 import hudson.model.Items;
+import hudson.model.Job;
 import hudson.model.ParameterDefinition;
 import hudson.model.ParametersDefinitionProperty;
 import hudson.model.Project;
 import hudson.security.ACL;
+import hudson.security.ACLContext;
 import hudson.slaves.EnvironmentVariablesNodeProperty;
 import hudson.slaves.NodeProperty;
 import hudson.slaves.NodePropertyDescriptor;
@@ -210,54 +211,86 @@ public class Utils {
      * @since 1.3
      * @param parameterUUID parameter UUID
      * @return {@code null} if the current project cannot be found
+     * @see #findJobByParameterUUID(String)
      */
     @SuppressWarnings("rawtypes")
     public static @CheckForNull Project findProjectByParameterUUID(@NonNull String parameterUUID) {
+        final Job<?, ?> job = findJobByParameterUUID(parameterUUID);
+        return job instanceof Project ? (Project) job : null;
+    }
+
+    /**
+     * Find the job, of any type (e.g. Pipeline), that defines the parameter with the given UUID.
+     *
+     * @since 2.8.10
+     * @param parameterUUID parameter UUID
+     * @return {@code null} if the job cannot be found, or is not visible to the current user
+     */
+    public static @CheckForNull Job<?, ?> findJobByParameterUUID(@NonNull String parameterUUID) {
+        final String fullName = ParameterIndex.INSTANCE.getJobFullName(parameterUUID);
+        if (fullName == null) {
+            return null;
+        }
+        final Job<?, ?> job;
+        try (ACLContext ignored = ACL.as2(ACL.SYSTEM2)) {
+            job = Jenkins.get().getItemByFullName(fullName, Job.class);
+        }
         Authentication auth = Jenkins.getAuthentication2();
-        for (Project p : Items.allItems2(ACL.SYSTEM2, Jenkins.get(), Project.class)) {
-            if (isParameterDefinitionOf(parameterUUID, p) && p.getACL().hasPermission2(auth, Item.READ)) {
-                return p;
-            }
+        if (job != null && isParameterDefinitionOf(parameterUUID, job) && job.getACL().hasPermission2(auth, Item.READ)) {
+            return job;
         }
         return null;
     }
 
     /**
-     * Returns true if this parameter definition is a definition of the given project.
+     * Returns true if this parameter definition is a definition of the given job.
      *
      * @since 1.3
      * @author dynamic-parameter-plugin
      * @param parameterUUID UUID of the project parameter
-     * @param project the project to search for this parameter definition.
-     * @return {@code true} if the project contains this parameter definition.
+     * @param job the job to search for this parameter definition.
+     * @return {@code true} if the job contains this parameter definition.
+     */
+    private static boolean isParameterDefinitionOf(@NonNull String parameterUUID, @NonNull Job<?, ?> job) {
+        return getParameterUUIDs(job).contains(parameterUUID);
+    }
+
+    /**
+     * Get the random names (UUID) of the Active Choices parameters of the given job, including the
+     * parameters defined by the build wrappers of projects.
+     *
+     * @since 2.8.10
+     * @param job the job
+     * @return parameter random names, or an empty list
      */
-    private static boolean isParameterDefinitionOf(@NonNull String parameterUUID, @NonNull Project<?, ?> project) {
-        List<ParameterDefinition> parameterDefinitions = new ArrayList<>(getProjectParameterDefinitions(project));
-        for (List<ParameterDefinition> params : getBuildWrapperParameterDefinitions(project).values()) {
-            parameterDefinitions.addAll(params);
+    public static @NonNull List<String> getParameterUUIDs(@NonNull Job<?, ?> job) {
+        List<ParameterDefinition> parameterDefinitions = new ArrayList<>(getJobParameterDefinitions(job));
+        if (job instanceof Project) {
+            for (List<ParameterDefinition> params : getBuildWrapperParameterDefinitions((Project<?, ?>) job).values()) {
+                parameterDefinitions.addAll(params);
+            }
         }
+        List<String> uuids = new ArrayList<>();
         for (ParameterDefinition pd : parameterDefinitions) {
             if (pd instanceof AbstractUnoChoiceParameter) {
-                AbstractUnoChoiceParameter parameterDefinition = (AbstractUnoChoiceParameter) pd;
-                String uuid = parameterDefinition.getRandomName();
-                if (ObjectUtils.equals(parameterUUID, uuid)) {
-                    return true;
+                String uuid = ((AbstractUnoChoiceParameter) pd).getRandomName();
+                if (uuid != null) {
+                    uuids.add(uuid);
                 }
             }
         }
-        return false;
+        return uuids;
     }
 
     /**
-     * Get the parameter definitions for the given project.
+     * Get the parameter definitions for the given job.
      *
-     * @since 1.3
-     * @author dynamic-parameter-plugin
-     * @param project the project for which the parameter definitions should be found
+     * @since 2.8.10
+     * @param job the job for which the parameter definitions should be found
      * @return parameter definitions or an empty list
      */
-    public static @NonNull List<ParameterDefinition> getProjectParameterDefinitions(@NonNull Project<?, ?> project) {
-        ParametersDefinitionProperty parametersDefinitionProperty = project.getProperty(ParametersDefinitionProperty.class);
+    public static @NonNull List<ParameterDefinition> getJobParameterDefinitions(@NonNull Job<?, ?> job) {
+        ParametersDefinitionProperty parametersDefinitionProperty = job.getProperty(ParametersDefinitionProperty.class);
         if (parametersDefinitionProperty != null) {
             List<ParameterDefinition> parameterDefinitions = parametersDefinitionProperty.getParameterDefinitions();
             if (parameterDefinitions != null) {
@@ -267,6 +300,18 @@ public class Utils {
         return Collections.emptyList();
     }
 
+    /**
+     * Get the parameter definitions for the given project.
+     *
+     * @since 1.3
+     * @author dynamic-parameter-plugin
+     * @param project the project for which the parameter definitions should be found
+     * @return parameter definitions or an empty list
+     */
+    public static @NonNull List<ParameterDefinition> getProjectParameterDefinitions(@NonNull Project<?, ?> project) {
+        return getJobParameterDefinitions(project);
+    }
+
     /**
      * Get a map with the global node properties.
      *
@@ -5,17 +5,19 @@ if (window.makeStaplerProxy) {
 
 window.addEventListener("DOMContentLoaded", () => {
     document.querySelectorAll(".cascade-choice-parameter-data-holder").forEach((dataHolder) => {
-        const { name, paramName, randomName, proxyName } = dataHolder.dataset;
+        const { name, paramName, randomName, proxyName, proxyUrl, proxyMethods, initialParameters, searchUrl } = dataHolder.dataset;
         const referencedParameters = dataHolder.dataset.referencedParameters;
         if (referencedParameters === undefined || referencedParameters === null || referencedParameters.length === 0) {
             console.log(`[${name}] - cascade-choice-parameters.js#querySelectorAll#forEach - No parameters referenced!`);
             return;
         }
+        const proxy = proxyUrl ? UnoChoice.makeParameterProxy(proxyUrl, proxyMethods) : window[proxyName];
         const referencedParametersList = dataHolder.dataset.referencedParameters.split(",").map((val) => val.trim());
         const filterable = dataHolder.dataset.filterable === "true";
         const filterLength = parseInt(dataHolder.dataset.filterLength);
+        const filterPageSize = parseInt(dataHolder.dataset.filterPageSize);
 
-        UnoChoice.renderCascadeChoiceParameter(`#${paramName}`, filterable, name, randomName, filterLength, paramName, referencedParametersList, window[proxyName]);
+        UnoChoice.renderCascadeChoiceParameter(`#${paramName}`, filterable, name, randomName, filterLength, paramName, referencedParametersList, proxy, initialParameters, searchUrl, filterPageSize);
     });
 
     if (window.makeStaplerProxy && window.__old__makeStaplerProxy) {
@@ -1,6 +1,6 @@
 window.addEventListener("DOMContentLoaded", () => {
     document.querySelectorAll(".choice-parameter-data-holder").forEach((dataHolder) => {
-        const { paramName, filterLength } = dataHolder.dataset;
-        UnoChoice.renderChoiceParameter(paramName, filterLength);
+        const { paramName, filterLength, searchUrl, filterPageSize } = dataHolder.dataset;
+        UnoChoice.renderChoiceParameter(paramName, filterLength, searchUrl, parseInt(filterPageSize));
     });
 });
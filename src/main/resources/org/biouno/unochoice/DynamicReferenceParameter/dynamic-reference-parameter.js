@@ -5,15 +5,16 @@ if (window.makeStaplerProxy) {
 
 window.addEventListener("DOMContentLoaded", () => {
     document.querySelectorAll(".dynamic-reference-parameter-data-holder").forEach((dataHolder) => {
-        const { name, paramName, proxyName } = dataHolder.dataset;
+        const { name, paramName, proxyName, proxyUrl, proxyMethods, initialParameters } = dataHolder.dataset;
         const referencedParameters = dataHolder.dataset.referencedParameters;
         if (referencedParameters === undefined || referencedParameters === null || referencedParameters.length === 0) {
             console.log(`[${name}] - dynamic-reference-parameter.js#querySelectorAll#forEach - No parameters referenced!`);
             return;
         }
+        const proxy = proxyUrl ? UnoChoice.makeParameterProxy(proxyUrl, proxyMethods) : window[proxyName];
         const referencedParametersList = dataHolder.dataset.referencedParameters.split(",").map((val) => val.trim());
 
-        UnoChoice.renderDynamicRenderParameter(`#${paramName}`, name, paramName, referencedParametersList, window[proxyName]);
+        UnoChoice.renderDynamicRenderParameter(`#${paramName}`, name, paramName, referencedParametersList, proxy, initialParameters);
 
         // update spinner id
         var rootElmt = document.querySelector(`#${paramName}`);
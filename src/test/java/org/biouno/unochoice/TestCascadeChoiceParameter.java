@@ -26,12 +26,17 @@ package org.biouno.unochoice;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import hudson.model.Descriptor;
 import org.biouno.unochoice.model.GroovyScript;
+import org.biouno.unochoice.util.ScriptExecutor;
 import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
 import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
 import org.jenkinsci.plugins.scriptsecurity.scripts.languages.GroovyLanguage;
@@ -101,6 +106,80 @@ class TestCascadeChoiceParameter {
         assertEquals(Arrays.asList("param001", "param002"), Arrays.asList(param.getReferencedParametersAsArray()));
     }
 
+    @Test
+    void testEvaluateChoicesForUI() throws Descriptor.FormException {
+        final String script = "return [param001, param002]";
+        ScriptApproval.get().preapprove(script, GroovyLanguage.get());
+        CascadeChoiceParameter param = new CascadeChoiceParameter("param000", "description", "some-random-name",
+                new GroovyScript(new SecureGroovyScript(script, Boolean.FALSE, null), null),
+                CascadeChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, "param001, param002", false, 0);
+
+        List<Object> choices = param.evaluateChoicesForUI("param001=A__LESEP__param002=B=C");
+        assertEquals(Arrays.asList("A", "B=C"), new ArrayList<>((Collection<?>) choices.get(0)));
+        assertEquals(Arrays.asList("A", "B=C"), new ArrayList<>((Collection<?>) choices.get(1)));
+        // nothing is stored in the parameter definition
+        assertTrue(param.getParameters().isEmpty());
+    }
+
+    @Test
+    void testParametersAreNotSharedBetweenCallers() throws Exception {
+        GroovyScript script = new GroovyScript(new SecureGroovyScript(SCRIPT, Boolean.FALSE, null),
+                new SecureGroovyScript(FALLBACK_SCRIPT, Boolean.FALSE, null));
+        CascadeChoiceParameter param = new CascadeChoiceParameter("param000", "description", "some-random-name", script,
+                CascadeChoiceParameter.ELEMENT_TYPE_FORMATTED_HIDDEN_HTML, "param001", true, 0);
+        try {
+            param.doUpdate("param001=A");
+        } catch (HttpResponses.HttpResponseException response) {
+            // ignore
+        }
+
+        Thread other = new Thread(() -> {
+            try {
+                param.doUpdate("param001=B");
+            } catch (HttpResponses.HttpResponseException response) {
+                // ignore
+            }
+        });
+        other.start();
+        other.join();
+
+        assertEquals(Collections.singletonMap("param001", "A"), param.getParameters());
+    }
+
+    @Test
+    void testParametersAreNotKeptOnTheExecutor() throws Exception {
+        GroovyScript script = new GroovyScript(new SecureGroovyScript(SCRIPT, Boolean.FALSE, null),
+                new SecureGroovyScript(FALLBACK_SCRIPT, Boolean.FALSE, null));
+        CascadeChoiceParameter param = new CascadeChoiceParameter("param000", "description", "some-random-name", script,
+                CascadeChoiceParameter.ELEMENT_TYPE_FORMATTED_HIDDEN_HTML, "param001", true, 0);
+        try {
+            param.doUpdate("param001=A");
+        } catch (HttpResponses.HttpResponseException response) {
+            // ignore
+        }
+
+        // the pooled threads neither see the values of the caller, nor keep their own for the next evaluation
+        assertTrue(ScriptExecutor.INSTANCE.submitDetached(param::getParameters).get().isEmpty());
+        ScriptExecutor.INSTANCE.submitDetached(() -> {
+            try {
+                param.doUpdate("param001=B");
+            } catch (HttpResponses.HttpResponseException response) {
+                // ignore
+            }
+            return null;
+        }).get();
+        assertTrue(ScriptExecutor.INSTANCE.submitDetached(param::getParameters).get().isEmpty());
+        assertEquals(Collections.singletonMap("param001", "A"), param.getParameters());
+
+        // an empty update clears the values of the thread
+        try {
+            param.doUpdate("");
+        } catch (HttpResponses.HttpResponseException response) {
+            // ignore
+        }
+        assertTrue(param.getParameters().isEmpty());
+    }
+
     @Test
     void testNullFilterable() throws Descriptor.FormException {
         GroovyScript script = new GroovyScript(new SecureGroovyScript(SCRIPT, Boolean.FALSE, null),
@@ -24,22 +24,33 @@
 
 package org.biouno.unochoice.issue76298;
 
+import hudson.model.FreeStyleProject;
 import hudson.model.ParameterValue;
+import hudson.model.ParametersDefinitionProperty;
+import hudson.model.Result;
 import hudson.model.StringParameterValue;
+import jenkins.triggers.ReverseBuildTrigger;
 import org.biouno.unochoice.ChoiceParameter;
 import org.biouno.unochoice.model.GroovyScript;
+import org.htmlunit.HttpMethod;
+import org.htmlunit.WebRequest;
 import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
 import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
 import org.jenkinsci.plugins.scriptsecurity.scripts.languages.GroovyLanguage;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.FailureBuilder;
 import org.jvnet.hudson.test.Issue;
 import org.jvnet.hudson.test.JenkinsRule;
 import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
 
+import java.net.URL;
+import java.util.Collections;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 
 /**
  * See JENKINS-76298, GH-911.
@@ -57,8 +68,11 @@ class TestAbstractScriptableParameterDefaultValueCache {
     private static final String SCRIPT = "return ['first', 'second']";
     private static final String FALLBACK_SCRIPT = "return ['FALLBACK']";
 
+    private JenkinsRule j;
+
     @BeforeEach
     void setUp(JenkinsRule j) {
+        this.j = j;
         ScriptApproval.get().preapprove(SCRIPT, GroovyLanguage.get());
         ScriptApproval.get().preapprove(FALLBACK_SCRIPT, GroovyLanguage.get());
     }
@@ -106,6 +120,67 @@ class TestAbstractScriptableParameterDefaultValueCache {
         assertEquals(2, param.getChoicesEvalCount());
     }
 
+    /**
+     * Verifies that the cached default value is kept in memory only, and invalidated when
+     * the job is saved, when a build completes, and when an administrator clears the caches.
+     */
+    @Test
+    void testCachedDefaultValueIsInvalidatedByEvents() throws Exception {
+        FreeStyleProject project = j.createFreeStyleProject();
+        CountingChoiceParameter param = newCountingChoiceParameter();
+        param.setCacheDefaultValue(true);
+        project.addProperty(new ParametersDefinitionProperty(param));
+
+        param.getDefaultParameterValue();
+        param.getDefaultParameterValue();
+        assertEquals(1, param.getChoicesEvalCount());
+        assertFalse(project.getConfigFile().asString().contains("cachedDefaultValue"));
+
+        project.save();
+        param.getDefaultParameterValue();
+        assertEquals(2, param.getChoicesEvalCount());
+
+        j.buildAndAssertSuccess(project);
+        int count = param.getChoicesEvalCount();
+        param.getDefaultParameterValue();
+        assertEquals(count + 1, param.getChoicesEvalCount());
+
+        try (JenkinsRule.WebClient wc = j.createWebClient()) {
+            WebRequest request = new WebRequest(new URL(j.getURL(),
+                    "descriptorByName/org.biouno.unochoice.ChoiceParameter/clearCaches"), HttpMethod.POST);
+            wc.addCrumb(request);
+            wc.getPage(request);
+        }
+        param.getDefaultParameterValue();
+        assertEquals(count + 2, param.getChoicesEvalCount());
+    }
+
+    /**
+     * Verifies that the cached default value of a Pipeline is invalidated when a build of the
+     * upstream job that triggers it completes.
+     */
+    @Test
+    void testCachedDefaultValueIsInvalidatedByUpstreamBuilds() throws Exception {
+        FreeStyleProject upstream = j.createFreeStyleProject("upstream");
+        upstream.getBuildersList().add(new FailureBuilder());
+        WorkflowJob downstream = j.createProject(WorkflowJob.class, "downstream");
+        CountingChoiceParameter param = newCountingChoiceParameter();
+        param.setCacheDefaultValue(true);
+        downstream.addProperty(new ParametersDefinitionProperty(param));
+        ReverseBuildTrigger trigger = new ReverseBuildTrigger("upstream");
+        // the failed upstream build does not start a downstream build
+        trigger.setThreshold(Result.SUCCESS);
+        downstream.setTriggers(Collections.singletonList(trigger));
+
+        param.getDefaultParameterValue();
+        param.getDefaultParameterValue();
+        assertEquals(1, param.getChoicesEvalCount());
+
+        j.buildAndAssertStatus(Result.FAILURE, upstream);
+        param.getDefaultParameterValue();
+        assertEquals(2, param.getChoicesEvalCount());
+    }
+
     private static CountingChoiceParameter newCountingChoiceParameter() throws Exception {
         GroovyScript script = new GroovyScript(
             new SecureGroovyScript(SCRIPT, false, null),
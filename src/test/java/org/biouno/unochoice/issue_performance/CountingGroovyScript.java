@@ -0,0 +1,70 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.biouno.unochoice.issue_performance;
+
+import org.biouno.unochoice.model.GroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A Groovy script that counts how many times it runs. Like the {@code CountingChoiceParameter} of the JENKINS-76298
+ * tests, but it counts the runs of the script itself, as the choices read from a parameter may be served from the
+ * caches without running it.
+ */
+class CountingGroovyScript extends GroovyScript {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient AtomicInteger count = new AtomicInteger();
+
+    private final transient AtomicInteger failures = new AtomicInteger();
+
+    CountingGroovyScript(SecureGroovyScript script, SecureGroovyScript fallbackScript) {
+        super(script, fallbackScript);
+    }
+
+    int getCount() {
+        return count.get();
+    }
+
+    /**
+     * Makes the next runs of the script fail, as if the service it reads was down.
+     *
+     * @param runs number of runs that fail
+     */
+    void failNext(int runs) {
+        failures.set(runs);
+    }
+
+    @Override
+    public Object evalPrimary(Map<String, String> parameters) throws RuntimeException {
+        count.incrementAndGet();
+        if (failures.getAndUpdate(runs -> Math.max(0, runs - 1)) > 0) {
+            throw new RuntimeException("Failed to evaluate script: service down");
+        }
+        return super.evalPrimary(parameters);
+    }
+}
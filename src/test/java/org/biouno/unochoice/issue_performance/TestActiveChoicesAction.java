@@ -0,0 +1,202 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.biouno.unochoice.issue_performance;
+
+import org.biouno.unochoice.ActiveChoicesAction;
+import org.biouno.unochoice.CascadeChoiceParameter;
+import org.biouno.unochoice.ChoiceParameter;
+import org.biouno.unochoice.DynamicReferenceParameter;
+import org.biouno.unochoice.model.GroovyScript;
+import org.htmlunit.HttpMethod;
+import org.htmlunit.Page;
+import org.htmlunit.WebRequest;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+import org.jenkinsci.plugins.scriptsecurity.scripts.languages.GroovyLanguage;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import hudson.model.FreeStyleProject;
+import hudson.model.ParametersDefinitionProperty;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that cascade parameters can be called at the URL of their job, without being bound to the session, and in
+ * batches.
+ */
+@WithJenkins
+class TestActiveChoicesAction {
+
+    private static GroovyScript script(String text) throws Exception {
+        return new GroovyScript(new SecureGroovyScript(text, true, null), null);
+    }
+
+    @Test
+    void testParameterIsCalledByUrl(JenkinsRule j) throws Exception {
+        // the crumb is checked by Stapler, already covered by its own tests
+        j.jenkins.setCrumbIssuer(null);
+        ChoiceParameter a = new ChoiceParameter("A", "", "random-a", script("return ['a1', 'a2']"),
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, false, 1);
+        CascadeChoiceParameter b = new CascadeChoiceParameter("B", "", "random-b", script("return [A + '-b']"),
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, "A", false, 1);
+        FreeStyleProject project = j.createFreeStyleProject("by-url");
+        project.addProperty(new ParametersDefinitionProperty(a, b));
+
+        assertEquals(project.getUrl() + ActiveChoicesAction.URL_NAME + "/random-b", b.getProxyUrl());
+
+        try (JenkinsRule.WebClient wc = j.createWebClient()) {
+            Page page = wc.getPage(call(j, b.getProxyUrl() + "/evaluateChoicesForUI", "[\"A=a2\"]"));
+            assertTrue(page.getWebResponse().getContentAsString().contains("a2-b"));
+
+            wc.setThrowExceptionOnFailingStatusCode(false);
+            page = wc.getPage(call(j, project.getUrl() + ActiveChoicesAction.URL_NAME + "/unknown/evaluateChoicesForUI",
+                    "[\"A=a2\"]"));
+            assertEquals(404, page.getWebResponse().getStatusCode());
+        }
+    }
+
+    @Test
+    void testCallsAreBatched(JenkinsRule j) throws Exception {
+        j.jenkins.setCrumbIssuer(null);
+        ChoiceParameter a = new ChoiceParameter("A", "", "random-a", script("return ['a1', 'a2']"),
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, false, 1);
+        CascadeChoiceParameter b = new CascadeChoiceParameter("B", "", "random-b", script("return [A + '-b']"),
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, "A", false, 1);
+        DynamicReferenceParameter c = new DynamicReferenceParameter("C", "", "random-c", script("return '[' + A + ']'"),
+                DynamicReferenceParameter.ELEMENT_TYPE_FORMATTED_HTML, "A", false);
+        FreeStyleProject project = j.createFreeStyleProject("batch");
+        project.addProperty(new ParametersDefinitionProperty(a, b, c));
+
+        try (JenkinsRule.WebClient wc = j.createWebClient()) {
+            WebRequest request = new WebRequest(new URL(j.getURL(), project.getUrl() + ActiveChoicesAction.URL_NAME
+                    + "/batch"), HttpMethod.POST);
+            request.setAdditionalHeader("Content-Type", "application/json;charset=UTF-8");
+            request.setRequestBody("["
+                    + "{\"parameter\":\"random-b\",\"method\":\"evaluateChoicesForUI\",\"args\":[\"A=a1\"]},"
+                    + "{\"parameter\":\"random-c\",\"method\":\"evaluateChoicesAsStringForUI\",\"args\":[\"A=a2\"]},"
+                    + "{\"parameter\":\"unknown\",\"method\":\"evaluateChoicesForUI\",\"args\":[\"A=a1\"]}"
+                    + "]");
+            String content = wc.getPage(request).getWebResponse().getContentAsString();
+
+            assertTrue(content.startsWith("{\"results\":[{\"value\":[[\"a1-b\"],[\"a1-b\"]]},"), content);
+            // strings are not parsed as JSON
+            assertTrue(content.contains(",{\"value\":\"[a2]\"},{\"error\":"), content);
+        }
+    }
+
+    @Test
+    void testOnlyParameterMethodsAreCalled(JenkinsRule j) throws Exception {
+        j.jenkins.setCrumbIssuer(null);
+        CascadeChoiceParameter b = new CascadeChoiceParameter("B", "", "random-b", script("return [A + '-b']"),
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, "A", false, 1);
+        FreeStyleProject project = j.createFreeStyleProject("allowed-methods");
+        project.addProperty(new ParametersDefinitionProperty(b));
+
+        assertTrue(b.getProxyMethods().contains("evaluateCascadeForUI"), b.getProxyMethods());
+        assertFalse(b.getProxyMethods().contains("doUpdate"), b.getProxyMethods());
+        assertFalse(b.getProxyMethods().contains("evaluateChoicesAsStringForUI"), b.getProxyMethods());
+
+        try (JenkinsRule.WebClient wc = j.createWebClient()) {
+            String content = wc.getPage(batch(j, project, "[42,"
+                    + "{\"parameter\":\"random-b\",\"method\":\"doUpdate\",\"args\":[\"A=a1\"]},"
+                    + "{\"parameter\":\"random-b\",\"method\":\"evaluateChoicesForUI\",\"args\":[\"A=a1\"]}"
+                    + "]")).getWebResponse().getContentAsString();
+
+            // the details of the errors are not sent
+            String error = "{\"error\":\"" + ActiveChoicesAction.CALL_FAILED + "\"}";
+            assertEquals("{\"results\":[" + error + "," + error + ",{\"value\":[[\"a1-b\"],[\"a1-b\"]]}]}", content);
+        }
+    }
+
+    @Test
+    void testBatchedCallsAreEvaluatedInParallel(JenkinsRule j) throws Exception {
+        j.jenkins.setCrumbIssuer(null);
+        String slow = "Thread.sleep(2000); return [A + '-b']";
+        ScriptApproval.get().preapprove(slow, GroovyLanguage.get());
+        CascadeChoiceParameter b = new CascadeChoiceParameter("B", "", "random-b",
+                new GroovyScript(new SecureGroovyScript(slow, false, null), null),
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, "A", false, 1);
+        FreeStyleProject project = j.createFreeStyleProject("parallel-batch");
+        project.addProperty(new ParametersDefinitionProperty(b));
+
+        try (JenkinsRule.WebClient wc = j.createWebClient()) {
+            long start = System.nanoTime();
+            String content = wc.getPage(batch(j, project, "["
+                    + "{\"parameter\":\"random-b\",\"method\":\"evaluateChoicesForUI\",\"args\":[\"A=a1\"]},"
+                    + "{\"parameter\":\"random-b\",\"method\":\"evaluateChoicesForUI\",\"args\":[\"A=a2\"]}"
+                    + "]")).getWebResponse().getContentAsString();
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            // in the order of the calls
+            assertTrue(content.startsWith("{\"results\":[{\"value\":[[\"a1-b\"],[\"a1-b\"]]},{\"value\":[[\"a2-b\"]"),
+                    content);
+            assertTrue(elapsed < 3500, "Calls were evaluated one after the other: " + elapsed + "ms");
+        }
+    }
+
+    @Test
+    void testBatchSizeIsLimited(JenkinsRule j) throws Exception {
+        j.jenkins.setCrumbIssuer(null);
+        CascadeChoiceParameter b = new CascadeChoiceParameter("B", "", "random-b", script("return [A + '-b']"),
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, "A", false, 1);
+        FreeStyleProject project = j.createFreeStyleProject("large-batch");
+        project.addProperty(new ParametersDefinitionProperty(b));
+
+        List<String> calls = new ArrayList<>();
+        for (int i = 0; i <= 50; i++) {
+            calls.add("{\"parameter\":\"random-b\",\"method\":\"evaluateChoicesForUI\",\"args\":[\"A=a" + i + "\"]}");
+        }
+        try (JenkinsRule.WebClient wc = j.createWebClient()) {
+            String content = wc.getPage(batch(j, project, "[" + String.join(",", calls) + "]"))
+                    .getWebResponse().getContentAsString();
+
+            assertTrue(content.contains("{\"value\":[[\"a49-b\"],[\"a49-b\"]]}"), content);
+            assertTrue(content.endsWith(",{\"error\":\"" + ActiveChoicesAction.TOO_MANY_CALLS + "\"}]}"), content);
+        }
+    }
+
+    private static WebRequest batch(JenkinsRule j, FreeStyleProject project, String body) throws Exception {
+        WebRequest request = new WebRequest(new URL(j.getURL(), project.getUrl() + ActiveChoicesAction.URL_NAME
+                + "/batch"), HttpMethod.POST);
+        request.setAdditionalHeader("Content-Type", "application/json;charset=UTF-8");
+        request.setRequestBody(body);
+        return request;
+    }
+
+    private static WebRequest call(JenkinsRule j, String url, String body) throws Exception {
+        WebRequest request = new WebRequest(new URL(j.getURL(), url), HttpMethod.POST);
+        request.setAdditionalHeader("Content-Type", "application/x-stapler-method-invocation;charset=UTF-8");
+        request.setRequestBody(body);
+        return request;
+    }
+}
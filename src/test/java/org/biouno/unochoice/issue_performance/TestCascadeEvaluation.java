@@ -0,0 +1,154 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.biouno.unochoice.issue_performance;
+
+import org.biouno.unochoice.CascadeChoiceParameter;
+import org.biouno.unochoice.ChoiceParameter;
+import org.biouno.unochoice.DynamicReferenceParameter;
+import org.biouno.unochoice.model.GroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import hudson.model.FreeStyleProject;
+import hudson.model.ParametersDefinitionProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the evaluation of a whole cascade in a single call.
+ */
+@WithJenkins
+class TestCascadeEvaluation {
+
+    private static GroovyScript script(String text) throws Exception {
+        return new GroovyScript(new SecureGroovyScript(text, true, null), null);
+    }
+
+    @Test
+    void testDependentParametersAreEvaluatedInOrder(JenkinsRule j) throws Exception {
+        ChoiceParameter a = new ChoiceParameter("A", "", "random-a", script("return ['a1', 'a2']"),
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, false, 1);
+        CascadeChoiceParameter b = new CascadeChoiceParameter("B", "", "random-b", script("return [A + '-b1', A + '-b2']"),
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, "A", false, 1);
+        CascadeChoiceParameter c = new CascadeChoiceParameter("C", "", "random-c", script("return [B + '-c']"),
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, "B", false, 1);
+        DynamicReferenceParameter d = new DynamicReferenceParameter("D", "", "random-d", script("return B + '-d'"),
+                DynamicReferenceParameter.ELEMENT_TYPE_FORMATTED_HTML, "B", false);
+        CascadeChoiceParameter e = new CascadeChoiceParameter("E", "", "random-e", script("return [C + '/' + B]"),
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, "C, B", false, 1);
+        // not affected by B
+        CascadeChoiceParameter f = new CascadeChoiceParameter("F", "", "random-f", script("return [A]"),
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, "A", false, 1);
+        FreeStyleProject project = j.createFreeStyleProject();
+        project.addProperty(new ParametersDefinitionProperty(a, b, c, d, e, f));
+
+        List<Object> results = b.evaluateCascadeForUI("A=a2__LESEP__B=old__LESEP__C=old");
+
+        List<String> names = new ArrayList<>();
+        for (Object result : results) {
+            names.add((String) ((List<?>) result).get(0));
+        }
+        assertEquals(Arrays.asList("B", "C", "D", "E"), names);
+        assertEquals(Arrays.asList("a2-b1", "a2-b2"), keys(results.get(0)));
+        assertEquals(Arrays.asList("a2-b1-c"), keys(results.get(1)));
+        assertEquals("a2-b1-d", ((List<?>) results.get(2)).get(1));
+        assertEquals(Arrays.asList("a2-b1-c/a2-b1"), keys(results.get(3)));
+    }
+
+    @Test
+    void testDiamondIsEvaluatedOnce(JenkinsRule j) throws Exception {
+        ChoiceParameter a = new ChoiceParameter("A", "", "random-a", script("return ['a1', 'a2']"),
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, false, 1);
+        CascadeChoiceParameter b = new CascadeChoiceParameter("B", "", "random-b", script("return [A + '-b']"),
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, "A", false, 1);
+        CascadeChoiceParameter c = new CascadeChoiceParameter("C", "", "random-c", script("return [A + '-c']"),
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, "A", false, 1);
+        CascadeChoiceParameter d = new CascadeChoiceParameter("D", "", "random-d", script("return [B + '/' + C]"),
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, "B, C", false, 1);
+        FreeStyleProject project = j.createFreeStyleProject();
+        project.addProperty(new ParametersDefinitionProperty(a, b, c, d));
+
+        // both parameters that reference A changed, D depends on both of them
+        List<Object> results = b.evaluateCascadesForUI("C, B", "A=a2__LESEP__B=old__LESEP__C=old");
+
+        List<String> names = new ArrayList<>();
+        for (Object result : results) {
+            names.add((String) ((List<?>) result).get(0));
+        }
+        assertEquals(Arrays.asList("C", "B", "D"), names);
+        assertEquals(Arrays.asList("a2-b/a2-c"), keys(results.get(2)));
+    }
+
+    @Test
+    void testDependentsWithUnchangedInputsAreSkipped(JenkinsRule j) throws Exception {
+        ChoiceParameter a = new ChoiceParameter("A", "", "random-a", script("return ['a1', 'a2']"),
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, false, 1);
+        CascadeChoiceParameter b = new CascadeChoiceParameter("B", "", "random-b", script("return [A + '-b']"),
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, "A", false, 1);
+        CascadeChoiceParameter c = new CascadeChoiceParameter("C", "", "random-c", script("return [B + '-c']"),
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, "B", false, 1);
+        CascadeChoiceParameter d = new CascadeChoiceParameter("D", "", "random-d", script("return [C + '-d']"),
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, "C", false, 1);
+        FreeStyleProject project = j.createFreeStyleProject();
+        project.addProperty(new ParametersDefinitionProperty(a, b, c, d));
+
+        // B selects the value the UI already had, nothing below it changes
+        List<Object> results = b.evaluateCascadeForUI("A=a2__LESEP__B=a2-b__LESEP__C=a2-b-c");
+
+        assertEquals(1, results.size());
+        assertEquals("B", ((List<?>) results.get(0)).get(0));
+        assertEquals(Arrays.asList("a2-b"), keys(results.get(0)));
+    }
+
+    @Test
+    void testDependentsOfTextBoxesSeeTheirNewValue(JenkinsRule j) throws Exception {
+        ChoiceParameter a = new ChoiceParameter("A", "", "random-a", script("return ['a1', 'a2']"),
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, false, 1);
+        CascadeChoiceParameter b = new CascadeChoiceParameter("B", "", "random-b", script("return [A + '-b']"),
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, "A", false, 1);
+        DynamicReferenceParameter t = new DynamicReferenceParameter("T", "", "random-t", script("return B + '-t'"),
+                DynamicReferenceParameter.ELEMENT_TYPE_TEXT_BOX, "B", false);
+        CascadeChoiceParameter c = new CascadeChoiceParameter("C", "", "random-c", script("return [T + '-c']"),
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, "T", false, 1);
+        FreeStyleProject project = j.createFreeStyleProject();
+        project.addProperty(new ParametersDefinitionProperty(a, b, t, c));
+
+        List<Object> results = b.evaluateCascadeForUI("A=a2__LESEP__B=old__LESEP__T=old");
+
+        assertEquals("a2-b-t", ((List<?>) results.get(1)).get(1));
+        assertEquals(Arrays.asList("a2-b-t-c"), keys(results.get(2)));
+    }
+
+    private static List<Object> keys(Object result) {
+        List<?> choices = (List<?>) ((List<?>) result).get(1);
+        return new ArrayList<>((Collection<?>) choices.get(1));
+    }
+}
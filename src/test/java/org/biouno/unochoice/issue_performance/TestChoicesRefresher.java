@@ -0,0 +1,113 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.issue_performance;
+
+import hudson.ExtensionList;
+import hudson.model.FreeStyleProject;
+import hudson.model.ParametersDefinitionProperty;
+import jenkins.model.Jenkins;
+import org.biouno.unochoice.ChoiceParameter;
+import org.biouno.unochoice.ChoicesRefresher;
+import org.biouno.unochoice.model.GroovyScript;
+import org.biouno.unochoice.util.EvaluationKey;
+import org.biouno.unochoice.util.ScriptResultCache;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+import org.jenkinsci.plugins.scriptsecurity.scripts.languages.GroovyLanguage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Tests that parameters with a refresh interval are rendered from the result of the background refresh.
+ */
+@WithJenkins
+class TestChoicesRefresher {
+
+    // returns a different value on every evaluation
+    private static final String SCRIPT = "return [System.nanoTime().toString()]";
+    private static final String SCRIPT_USER = "return [jenkins.model.Jenkins.getAuthentication2().getName()]";
+
+    private JenkinsRule j;
+
+    @BeforeEach
+    void setUp(JenkinsRule j) {
+        this.j = j;
+        ScriptApproval.get().preapprove(SCRIPT, GroovyLanguage.get());
+        ScriptApproval.get().preapprove(SCRIPT_USER, GroovyLanguage.get());
+        ScriptResultCache.INSTANCE.clear();
+    }
+
+    @Test
+    void testRefreshedChoicesAreServed() throws Exception {
+        FreeStyleProject project = j.createFreeStyleProject("refreshed");
+        GroovyScript script = new GroovyScript(new SecureGroovyScript(SCRIPT, false, null), null);
+        ChoiceParameter parameter = new ChoiceParameter("param", "description", "refreshed-random-name", script,
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, false, 1);
+        parameter.setRefreshInterval(3600);
+        project.addProperty(new ParametersDefinitionProperty(parameter));
+
+        ExtensionList.lookupSingleton(ChoicesRefresher.class).doRun();
+
+        // served to every user
+        assertNotNull(awaitRefresh(new EvaluationKey("refreshed-random-name", project.getFullName(), script, Collections.emptyMap(), null)));
+
+        Map<Object, Object> first = parameter.getChoices(Collections.emptyMap());
+        Map<Object, Object> second = parameter.getChoices(Collections.emptyMap());
+        assertEquals(1, first.size());
+        assertEquals(first, second);
+        assertEquals(parameter.getDefaultParameterValue().getValue(), first.keySet().iterator().next());
+    }
+
+    @Test
+    void testRefreshRunsAsAnonymous() throws Exception {
+        FreeStyleProject project = j.createFreeStyleProject("refreshed-user");
+        GroovyScript script = new GroovyScript(new SecureGroovyScript(SCRIPT_USER, false, null), null);
+        ChoiceParameter parameter = new ChoiceParameter("param", "description", "refreshed-user-random-name", script,
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, false, 1);
+        parameter.setRefreshInterval(3600);
+        project.addProperty(new ParametersDefinitionProperty(parameter));
+
+        ExtensionList.lookupSingleton(ChoicesRefresher.class).doRun();
+
+        Object refreshed = awaitRefresh(new EvaluationKey("refreshed-user-random-name", project.getFullName(), script, Collections.emptyMap(), null));
+        assertEquals(Collections.singletonList(Jenkins.ANONYMOUS2.getName()), refreshed);
+    }
+
+    private static Object awaitRefresh(EvaluationKey key) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000L;
+        while (ScriptResultCache.INSTANCE.getIfPresent(key) == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100L);
+        }
+        return ScriptResultCache.INSTANCE.getIfPresent(key);
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.issue_performance;
+
+import org.biouno.unochoice.ActiveChoicesAction;
+import org.biouno.unochoice.ChoiceParameter;
+import org.biouno.unochoice.model.GroovyScript;
+import org.biouno.unochoice.util.ChoicesIndex;
+import org.htmlunit.HttpMethod;
+import org.htmlunit.WebRequest;
+import org.htmlunit.util.NameValuePair;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import hudson.model.FreeStyleProject;
+import hudson.model.ParametersDefinitionProperty;
+
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that very large lists of choices are sent one page at a time, and searched on the server.
+ */
+@WithJenkins
+class TestChoicesSearch {
+
+    private static List<String> labels(ChoicesIndex.Page page) {
+        return page.getChoices().stream().map(ChoicesIndex.Choice::getLabel).collect(Collectors.toList());
+    }
+
+    @Test
+    void testSearchModes(JenkinsRule j) {
+        Map<Object, Object> choices = new LinkedHashMap<>();
+        for (String label : Arrays.asList("Banana", "Apple", "Pineapple", "Apricot", "Grape:disabled")) {
+            choices.put(label.toLowerCase(), label);
+        }
+        ChoicesIndex index = new ChoicesIndex(choices);
+
+        assertEquals(Arrays.asList("Apple", "Apricot"), labels(index.search("ap", ChoicesIndex.Mode.PREFIX, 0, 10)));
+        assertEquals(Arrays.asList("Apple", "Pineapple", "Apricot", "Grape"),
+                labels(index.search("ap", ChoicesIndex.Mode.SUBSTRING, 0, 10)));
+        // the closest matches come first
+        assertEquals(Arrays.asList("Apple", "Pineapple"), labels(index.search("apl", ChoicesIndex.Mode.FUZZY, 0, 10)));
+        assertTrue(index.search("ape", ChoicesIndex.Mode.SUBSTRING, 0, 10).getChoices().get(0).isDisabled());
+
+        ChoicesIndex.Page page = index.search("", ChoicesIndex.Mode.SUBSTRING, 2, 2);
+        assertEquals(5, page.getTotal());
+        assertEquals(2, page.getOffset());
+        assertEquals(Arrays.asList("Pineapple", "Apricot"), labels(page));
+    }
+
+    @Test
+    void testChoicesArePagedAndSearched(JenkinsRule j) throws Exception {
+        j.jenkins.setCrumbIssuer(null);
+        ChoiceParameter parameter = new ChoiceParameter("A", "", "random-a", new GroovyScript(
+                new SecureGroovyScript("return (1..5000).collect { 'item-' + it } + ['item-42:selected']", true, null),
+                null), ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, true, 1);
+        assertNull(parameter.getSearchUrl());
+        parameter.setFilterPageSize(100);
+        FreeStyleProject project = j.createFreeStyleProject("search");
+        project.addProperty(new ParametersDefinitionProperty(parameter));
+
+        assertEquals(project.getUrl() + ActiveChoicesAction.URL_NAME + "/search", parameter.getSearchUrl());
+        Map<Object, Object> initial = parameter.getInitialChoicesPage();
+        // the first page, and the selected choice
+        assertEquals(101, initial.size());
+        assertTrue(initial.containsKey("item-42:selected"));
+
+        try (JenkinsRule.WebClient wc = j.createWebClient()) {
+            WebRequest request = new WebRequest(new URL(j.getURL(), parameter.getSearchUrl()), HttpMethod.POST);
+            request.setRequestParameters(Arrays.asList(new NameValuePair("parameter", "random-a"),
+                    new NameValuePair("query", "item-499"), new NameValuePair("mode", "prefix"),
+                    new NameValuePair("limit", "5")));
+            String content = wc.getPage(request).getWebResponse().getContentAsString();
+
+            assertTrue(content.startsWith("{\"total\":11,\"offset\":0,\"choices\":[{\"value\":\"item-499\","), content);
+        }
+    }
+
+    @Test
+    void testFailuresAreNotIndexed(JenkinsRule j) throws Exception {
+        CountingGroovyScript script = new CountingGroovyScript(
+                new SecureGroovyScript("return ['value-1', 'value-2']", true, null),
+                new SecureGroovyScript("return ['fallback']", true, null));
+        ChoiceParameter parameter = new ChoiceParameter("A", "", "random-failing", script,
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, true, 1);
+        parameter.setFilterPageSize(1);
+        parameter.setChoicesCacheTtl(3600);
+        script.failNext(1);
+
+        assertEquals(Arrays.asList("fallback"),
+                labels(parameter.searchChoices(Collections.emptyMap(), "", ChoicesIndex.Mode.SUBSTRING, 0, 10)));
+        // the script is evaluated again, and its choices indexed
+        assertEquals(Arrays.asList("value-1", "value-2"),
+                labels(parameter.searchChoices(Collections.emptyMap(), "", ChoicesIndex.Mode.SUBSTRING, 0, 10)));
+        assertEquals(Arrays.asList("value-2"),
+                labels(parameter.searchChoices(Collections.emptyMap(), "2", ChoicesIndex.Mode.SUBSTRING, 0, 10)));
+        assertEquals(2, script.getCount());
+    }
+
+    @Test
+    void testIndexIsNotCachedWithoutResultCache(JenkinsRule j) throws Exception {
+        CountingGroovyScript script = new CountingGroovyScript(
+                new SecureGroovyScript("return ['value-1', 'value-2']", true, null), null);
+        ChoiceParameter parameter = new ChoiceParameter("A", "", "random-uncached", script,
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, true, 1);
+        parameter.setFilterPageSize(1);
+
+        // every search sees the current choices, as the dropdown does
+        parameter.searchChoices(Collections.emptyMap(), "", ChoicesIndex.Mode.SUBSTRING, 0, 10);
+        parameter.searchChoices(Collections.emptyMap(), "2", ChoicesIndex.Mode.SUBSTRING, 0, 10);
+        assertEquals(2, script.getCount());
+    }
+}
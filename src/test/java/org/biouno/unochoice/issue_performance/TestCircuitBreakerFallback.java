@@ -0,0 +1,104 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.issue_performance;
+
+import org.biouno.unochoice.ChoiceParameter;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+import org.jenkinsci.plugins.scriptsecurity.scripts.languages.GroovyLanguage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that a script failing repeatedly is skipped in favour of its fallback, and that the fallback has the same
+ * timeout as the script.
+ */
+@WithJenkins
+class TestCircuitBreakerFallback {
+
+    // always fails
+    private static final String SCRIPT = "throw new IOException('service down')";
+    private static final String FAILED_ASSERTION_SCRIPT = "assert false";
+    private static final String FALLBACK_SCRIPT = "return ['FALLBACK']";
+    private static final String SLOW_FALLBACK_SCRIPT = "Thread.sleep(10000); return ['FALLBACK']";
+
+    @BeforeEach
+    void setUp(JenkinsRule j) {
+        ScriptApproval.get().preapprove(SCRIPT, GroovyLanguage.get());
+        ScriptApproval.get().preapprove(FAILED_ASSERTION_SCRIPT, GroovyLanguage.get());
+        ScriptApproval.get().preapprove(FALLBACK_SCRIPT, GroovyLanguage.get());
+        ScriptApproval.get().preapprove(SLOW_FALLBACK_SCRIPT, GroovyLanguage.get());
+    }
+
+    @Test
+    void testFailingScriptIsSkippedOnceTheCircuitIsOpen() {
+        CountingGroovyScript script = new CountingGroovyScript(new SecureGroovyScript(SCRIPT, false, null),
+                new SecureGroovyScript(FALLBACK_SCRIPT, false, null));
+        ChoiceParameter parameter = new ChoiceParameter("param", "description", "circuit-breaker-random-name", script,
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, false, 1);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Collections.singletonMap("FALLBACK", "FALLBACK"), parameter.getChoices(Collections.emptyMap()));
+        }
+        // the default threshold is three consecutive failures
+        assertEquals(3, script.getCount());
+    }
+
+    @Test
+    void testErrorsOfScriptsCalledInlineAreFailures() {
+        CountingGroovyScript script = new CountingGroovyScript(new SecureGroovyScript(FAILED_ASSERTION_SCRIPT, false, null),
+                new SecureGroovyScript(FALLBACK_SCRIPT, false, null));
+        ChoiceParameter parameter = new ChoiceParameter("param", "description", "circuit-breaker-error-random-name",
+                script, ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, false, 1);
+        // no timeout, the script is called on this thread
+        parameter.setEvaluationTimeout(0);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Collections.singletonMap("FALLBACK", "FALLBACK"), parameter.getChoices(Collections.emptyMap()));
+        }
+        assertEquals(3, script.getCount());
+    }
+
+    @Test
+    void testFallbackIsInterruptedOnTimeout() {
+        CountingGroovyScript script = new CountingGroovyScript(new SecureGroovyScript(SCRIPT, false, null),
+                new SecureGroovyScript(SLOW_FALLBACK_SCRIPT, false, null));
+        ChoiceParameter parameter = new ChoiceParameter("param", "description", "circuit-breaker-slow-random-name",
+                script, ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, false, 1);
+        parameter.setEvaluationTimeout(1);
+
+        long start = System.nanoTime();
+        assertEquals(Collections.emptyMap(), parameter.getChoices(Collections.emptyMap()));
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 5);
+    }
+}
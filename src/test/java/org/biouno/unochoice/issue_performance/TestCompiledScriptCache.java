@@ -0,0 +1,99 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.issue_performance;
+
+import org.biouno.unochoice.model.GroovyScript;
+import org.biouno.unochoice.util.CompiledScriptCache;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+import org.jenkinsci.plugins.scriptsecurity.scripts.languages.GroovyLanguage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the cache of compiled Groovy script classes.
+ */
+@WithJenkins
+class TestCompiledScriptCache {
+
+    private static final String SCRIPT = "return [a, 'b']";
+    private static final String FALLBACK_SCRIPT = "return ['FALLBACK']";
+
+    @BeforeEach
+    void setUp(JenkinsRule j) {
+        ScriptApproval.get().preapprove(SCRIPT, GroovyLanguage.get());
+        CompiledScriptCache.INSTANCE.clear();
+    }
+
+    @Test
+    void testScriptIsCompiledOnlyOnce() throws Exception {
+        GroovyScript script = new GroovyScript(
+                new SecureGroovyScript(SCRIPT, true, null),
+                new SecureGroovyScript(FALLBACK_SCRIPT, true, null));
+
+        Map<String, String> parameters = Collections.singletonMap("a", "1");
+        assertEquals(Arrays.asList("1", "b"), script.eval(parameters));
+        assertEquals(1, CompiledScriptCache.INSTANCE.size());
+
+        // a new binding is used for each evaluation of the cached class
+        parameters = Collections.singletonMap("a", "2");
+        assertEquals(Arrays.asList("2", "b"), script.eval(parameters));
+        assertEquals(1, CompiledScriptCache.INSTANCE.size());
+    }
+
+    @Test
+    void testCachedScriptRunsInTheSandbox() throws Exception {
+        GroovyScript script = new GroovyScript(
+                new SecureGroovyScript("return [jenkins.model.Jenkins.get().getRootDir().getPath()]", true, null),
+                new SecureGroovyScript(FALLBACK_SCRIPT, true, null));
+
+        assertEquals(Collections.singletonList("FALLBACK"), script.eval(Collections.emptyMap()));
+        assertEquals(Collections.singletonList("FALLBACK"), script.eval(Collections.emptyMap()));
+    }
+
+    @Test
+    void testRevokedApprovalIsChecked() throws Exception {
+        GroovyScript script = new GroovyScript(
+                new SecureGroovyScript(SCRIPT, false, null),
+                new SecureGroovyScript(FALLBACK_SCRIPT, true, null));
+
+        Map<String, String> parameters = Collections.singletonMap("a", "1");
+        assertEquals(Arrays.asList("1", "b"), script.eval(parameters));
+        // evaluated by script-security, that checks its approval every time
+        assertEquals(0, CompiledScriptCache.INSTANCE.size());
+
+        ScriptApproval.get().clearApprovedScripts();
+
+        assertEquals(Collections.singletonList("FALLBACK"), script.eval(parameters));
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.biouno.unochoice.issue_performance;
+
+import org.biouno.unochoice.CascadeChoiceParameter;
+import org.biouno.unochoice.ChoiceParameter;
+import org.biouno.unochoice.DynamicReferenceParameter;
+import org.biouno.unochoice.model.GroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import hudson.model.FreeStyleProject;
+import hudson.model.ParametersDefinitionProperty;
+import hudson.model.StringParameterDefinition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that cascade parameters are first rendered with the initial values of the parameters they reference.
+ */
+@WithJenkins
+class TestInitialRender {
+
+    private static GroovyScript script(String text) throws Exception {
+        return new GroovyScript(new SecureGroovyScript(text, true, null), null);
+    }
+
+    @Test
+    void testCascadeIsRenderedWithInitialValues(JenkinsRule j) throws Exception {
+        ChoiceParameter a = new ChoiceParameter("A", "", "random-a", script("return ['a1', 'a2']"),
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, false, 1);
+        StringParameterDefinition s = new StringParameterDefinition("S", "s");
+        CascadeChoiceParameter b = new CascadeChoiceParameter("B", "", "random-b", script("return [A + '-' + S]"),
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, "A, S", false, 1);
+        CascadeChoiceParameter c = new CascadeChoiceParameter("C", "", "random-c", script("return [B + '-c']"),
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, "B", false, 1);
+        DynamicReferenceParameter d = new DynamicReferenceParameter("D", "", "random-d", script("return B + '-d'"),
+                DynamicReferenceParameter.ELEMENT_TYPE_FORMATTED_HTML, "B", false);
+        // the value of D is only known to the UI
+        CascadeChoiceParameter e = new CascadeChoiceParameter("E", "", "random-e", script("return ['e']"),
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, "D", false, 1);
+        FreeStyleProject project = j.createFreeStyleProject();
+        project.addProperty(new ParametersDefinitionProperty(a, s, b, c, d, e));
+
+        assertEquals("A=a1__LESEP__S=s", b.getInitialParametersForUI());
+        assertEquals(Arrays.asList("a1-s"), new ArrayList<>(b.getInitialChoices().keySet()));
+        assertEquals("B=a1-s", c.getInitialParametersForUI());
+        assertEquals(Arrays.asList("a1-s-c"), new ArrayList<>(c.getInitialChoices().keySet()));
+        assertEquals("B=a1-s", d.getInitialParametersForUI());
+        assertEquals("a1-s-d", d.getInitialChoicesAsString());
+
+        assertEquals("", e.getInitialParametersForUI());
+        assertEquals(Collections.singletonMap("e", "e"), e.getInitialChoices());
+    }
+}
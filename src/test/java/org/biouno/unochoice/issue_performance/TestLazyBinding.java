@@ -0,0 +1,244 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.issue_performance;
+
+import hudson.ExtensionList;
+import hudson.model.FileParameterValue.FileItemImpl2;
+import hudson.model.FreeStyleProject;
+import hudson.model.ParametersDefinitionProperty;
+import hudson.slaves.EnvironmentVariablesNodeProperty;
+import org.biouno.unochoice.AbstractScriptableParameter;
+import org.biouno.unochoice.AbstractUnoChoiceParameter;
+import org.biouno.unochoice.ChoiceParameter;
+import org.apache.commons.io.FileUtils;
+import org.biouno.unochoice.model.GroovyScript;
+import org.biouno.unochoice.model.ScriptlerScript;
+import org.biouno.unochoice.util.GlobalNodeProperties;
+import org.biouno.unochoice.util.LazyBinding;
+import org.biouno.unochoice.util.ScriptParameters;
+import org.jenkinsci.plugins.scriptler.ScriptlerHelper;
+import org.jenkinsci.plugins.scriptler.ScriptlerManagement;
+import org.jenkinsci.plugins.scriptler.builder.ScriptlerBuilder;
+import org.jenkinsci.plugins.scriptler.config.Parameter;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+import org.jenkinsci.plugins.scriptsecurity.scripts.languages.GroovyLanguage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import groovy.lang.MissingPropertyException;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that jenkinsProject, jenkinsBuild, the global node properties and the parameters are only computed when
+ * read, and that Scriptler scripts see them like Groovy scripts do.
+ */
+@WithJenkins
+class TestLazyBinding {
+
+    private static final String SCRIPT_CONSTANT = "return ['a', 'b']";
+    private static final String SCRIPT_PROJECT = "return [jenkinsProject.getFullName()]";
+
+    private JenkinsRule j;
+
+    @BeforeEach
+    void setUp(JenkinsRule j) {
+        this.j = j;
+        ScriptApproval.get().preapprove(SCRIPT_CONSTANT, GroovyLanguage.get());
+        ScriptApproval.get().preapprove(SCRIPT_PROJECT, GroovyLanguage.get());
+    }
+
+    @Test
+    void testProjectIsNotResolvedWhenNotRead() throws Exception {
+        FreeStyleProject project = j.createFreeStyleProject("lazy-binding");
+        ChoiceParameter constant = createParameter("constant", SCRIPT_CONSTANT);
+        ChoiceParameter reading = createParameter("reading", SCRIPT_PROJECT);
+        project.addProperty(new ParametersDefinitionProperty(constant, reading));
+
+        assertEquals(2, constant.getChoices(Collections.emptyMap()).size());
+        assertNull(getField(constant, "projectFullNameCache"));
+
+        assertEquals(Collections.singletonMap(project.getFullName(), project.getFullName()),
+                reading.getChoices(Collections.emptyMap()));
+        assertEquals(project.getFullName(), getField(reading, "projectFullNameCache"));
+    }
+
+    @Test
+    void testLazyVariablesAreComputedOnceAndNeverShadowOthers() {
+        AtomicInteger groupCalls = new AtomicInteger();
+        AtomicInteger namedCalls = new AtomicInteger();
+        ScriptParameters parameters = new ScriptParameters();
+        parameters.put("a", "eager");
+        parameters.addLazyVariables(() -> {
+            groupCalls.incrementAndGet();
+            return Collections.singletonMap("a", "group");
+        });
+        parameters.addLazyVariable("b", () -> {
+            namedCalls.incrementAndGet();
+            return "named";
+        });
+        parameters.addLazyVariable("c", () -> null);
+
+        LazyBinding binding = new LazyBinding(ScriptParameters.lazyVariablesOf(parameters));
+        binding.setVariable("a", parameters.get("a"));
+
+        assertEquals("eager", binding.getVariable("a"));
+        assertEquals(0, groupCalls.get());
+        assertEquals(0, namedCalls.get());
+
+        assertEquals("named", binding.getVariable("b"));
+        assertEquals("named", binding.getVariable("b"));
+        assertEquals(1, groupCalls.get());
+        assertEquals(1, namedCalls.get());
+
+        assertFalse(binding.hasVariable("c"));
+        assertThrows(MissingPropertyException.class, () -> binding.getVariable("c"));
+        assertTrue(binding.hasVariable("b"));
+        assertEquals(1, namedCalls.get());
+    }
+
+    @Test
+    void testParametersAreMappedOnlyWhenRead() {
+        AtomicInteger mapped = new AtomicInteger();
+        Map<String, String> parameters = new LinkedHashMap<>();
+        parameters.put("a", "1");
+        parameters.put("b", "2");
+        parameters.put("c", null);
+
+        LazyBinding binding = new LazyBinding(parameters, value -> {
+            mapped.incrementAndGet();
+            return value + "!";
+        }, Collections.emptyList());
+
+        assertEquals("1!", binding.getVariable("a"));
+        assertEquals("1!", binding.getVariable("a"));
+        assertEquals(1, mapped.get());
+        assertTrue(binding.hasVariable("b"));
+        assertFalse(binding.hasVariable("c"));
+        assertEquals(1, mapped.get());
+
+        binding.setVariable("b", "set");
+        assertEquals(2, binding.getVariables().size());
+        assertEquals("set", binding.getVariable("b"));
+        assertEquals("2", parameters.get("b"));
+    }
+
+    @Test
+    void testGlobalNodePropertiesSnapshotIsRebuiltOnSave() throws Exception {
+        EnvironmentVariablesNodeProperty property = new EnvironmentVariablesNodeProperty(
+                new EnvironmentVariablesNodeProperty.Entry("LAZY_BINDING", "one"));
+        j.jenkins.getGlobalNodeProperties().add(property);
+        Map<String, Object> snapshot = GlobalNodeProperties.get();
+        assertEquals("one", snapshot.get("LAZY_BINDING"));
+        assertSame(snapshot, GlobalNodeProperties.get());
+
+        property.getEnvVars().put("LAZY_BINDING", "two");
+        j.jenkins.save();
+        assertEquals("two", GlobalNodeProperties.get().get("LAZY_BINDING"));
+    }
+
+    @Test
+    void testGlobalNodePropertiesAreExpanded() throws Exception {
+        j.jenkins.getGlobalNodeProperties().add(new EnvironmentVariablesNodeProperty(
+                new EnvironmentVariablesNodeProperty.Entry("LAZY_EXPANDED", "$PATH/tools")));
+        ChoiceParameter parameter = new ChoiceParameter("expanded", "description", "expanded-random-name",
+                new GroovyScript(new SecureGroovyScript("return [LAZY_EXPANDED]", true, null), null),
+                AbstractUnoChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, false, 1);
+
+        String expected = System.getenv("PATH") + "/tools";
+        assertEquals(Collections.singletonMap(expected, expected), parameter.getChoices(Collections.emptyMap()));
+    }
+
+    @Test
+    void testScriptlerEnvironmentVariablesDoNotShadowGlobalNodeProperties() throws Exception {
+        j.jenkins.getGlobalNodeProperties().add(new EnvironmentVariablesNodeProperty(
+                new EnvironmentVariablesNodeProperty.Entry("PATH", "from-node")));
+        ChoiceParameter parameter = createScriptlerParameter("path", "return [PATH]");
+
+        assertEquals(Collections.singletonMap("from-node", "from-node"), parameter.getChoices(Collections.emptyMap()));
+    }
+
+    @Test
+    void testScriptlerMacrosAreExpandedWithLazyVariables() throws Exception {
+        j.jenkins.getGlobalNodeProperties().add(new EnvironmentVariablesNodeProperty(
+                new EnvironmentVariablesNodeProperty.Entry("LAZY_MACRO", "lazy")));
+        ChoiceParameter parameter = createScriptlerParameter("macro", "return [arg1]",
+                new Parameter("arg1", "$LAZY_MACRO-$other"));
+
+        assertEquals(Collections.singletonMap("lazy-ui", "lazy-ui"),
+                parameter.getChoices(Collections.singletonMap("other", "ui")));
+    }
+
+    @Test
+    void testScriptlerMacrosAreExpandedWithoutParameters() throws Exception {
+        j.jenkins.getGlobalNodeProperties().add(new EnvironmentVariablesNodeProperty(
+                new EnvironmentVariablesNodeProperty.Entry("LAZY_MACRO", "lazy")));
+        ChoiceParameter parameter = createScriptlerParameter("empty", "return [arg1]",
+                new Parameter("arg1", "$LAZY_MACRO"));
+
+        assertEquals(Collections.singletonMap("lazy", "lazy"), parameter.getChoices(Collections.emptyMap()));
+    }
+
+    private static ChoiceParameter createScriptlerParameter(String name, String script, Parameter... parameters)
+            throws Exception {
+        File file = Files.createTempFile("uno-choice", name + ".groovy").toFile();
+        FileUtils.writeStringToFile(file, script, StandardCharsets.UTF_8, false);
+        ScriptlerManagement scriptler = ExtensionList.lookupSingleton(ScriptlerManagement.class);
+        new ScriptlerHelper(scriptler).saveScript(new FileItemImpl2(file), true, name + ".groovy");
+        ScriptlerBuilder builder = new ScriptlerBuilder("", name + ".groovy", false, List.of(parameters));
+        return new ChoiceParameter(name, "description", name + "-random-name", new ScriptlerScript(builder, true),
+                AbstractUnoChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, false, 1);
+    }
+
+    private static ChoiceParameter createParameter(String name, String script) {
+        return new ChoiceParameter(name, "description", name + "-random-name",
+                new GroovyScript(new SecureGroovyScript(script, false, null), null),
+                AbstractUnoChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, false, 1);
+    }
+
+    private static Object getField(Object target, String fieldName) throws ReflectiveOperationException {
+        Field field = AbstractScriptableParameter.class.getDeclaredField(fieldName);
+        field.setAccessible(true);
+        return field.get(target);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.issue_performance;
+
+import hudson.model.FreeStyleProject;
+import hudson.model.ParametersDefinitionProperty;
+import org.biouno.unochoice.AbstractScriptableParameter;
+import org.biouno.unochoice.ChoiceParameter;
+import org.biouno.unochoice.model.GroovyScript;
+import org.htmlunit.Page;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+import org.jenkinsci.plugins.scriptsecurity.scripts.languages.GroovyLanguage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that the REST API serves the last computed default value, without running the script inline, when enabled.
+ */
+@WithJenkins
+class TestNonBlockingApiDefaultValue {
+
+    private static final String SCRIPT = "Thread.sleep(1000L); return ['first', 'second']";
+    private static final String API = "api/json?tree=property[parameterDefinitions[defaultParameterValue[value]]]";
+
+    private JenkinsRule j;
+
+    @BeforeEach
+    void setUp(JenkinsRule j) {
+        this.j = j;
+        ScriptApproval.get().preapprove(SCRIPT, GroovyLanguage.get());
+        AbstractScriptableParameter.NON_BLOCKING_API = true;
+    }
+
+    @AfterEach
+    void tearDown() {
+        AbstractScriptableParameter.NON_BLOCKING_API = false;
+    }
+
+    @Test
+    void testApiIsServedFromTheLastComputedDefaultValue() throws Exception {
+        FreeStyleProject project = j.createFreeStyleProject("non-blocking-api");
+        CountingChoiceParameter parameter = new CountingChoiceParameter();
+        project.addProperty(new ParametersDefinitionProperty(parameter));
+
+        try (JenkinsRule.WebClient wc = j.createWebClient()) {
+            // nothing computed yet, the value is computed once
+            Page page = wc.goTo(project.getUrl() + API, "application/json");
+            assertTrue(page.getWebResponse().getContentAsString().contains("first"));
+            assertEquals(1, parameter.count.get());
+
+            page = wc.goTo(project.getUrl() + API, "application/json");
+            assertTrue(page.getWebResponse().getContentAsString().contains("first"));
+            assertEquals(1, parameter.count.get());
+        }
+    }
+
+    private static class CountingChoiceParameter extends ChoiceParameter {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient AtomicInteger count = new AtomicInteger();
+
+        CountingChoiceParameter() {
+            super("param", "description", "non-blocking-random-name",
+                    new GroovyScript(new SecureGroovyScript(SCRIPT, false, null), null),
+                    ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, false, 1);
+        }
+
+        @Override
+        public Map<Object, Object> getChoices(Map<Object, Object> parameters) {
+            count.incrementAndGet();
+            return super.getChoices(parameters);
+        }
+    }
+}
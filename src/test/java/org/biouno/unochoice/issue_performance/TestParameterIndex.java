@@ -0,0 +1,123 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.biouno.unochoice.issue_performance;
+
+import org.biouno.unochoice.ChoiceParameter;
+import org.biouno.unochoice.model.GroovyScript;
+import org.biouno.unochoice.util.ParameterIndex;
+import org.biouno.unochoice.util.Utils;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+import org.jenkinsci.plugins.scriptsecurity.scripts.languages.GroovyLanguage;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockFolder;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import hudson.model.FreeStyleProject;
+import hudson.model.ParametersDefinitionProperty;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests for the index of parameter random names to jobs.
+ */
+@WithJenkins
+class TestParameterIndex {
+
+    private static final String RANDOM_NAME = "choice-parameter-1234";
+
+    private JenkinsRule j;
+
+    @BeforeEach
+    void setUp(JenkinsRule j) {
+        this.j = j;
+        ParameterIndex.INSTANCE.invalidate();
+    }
+
+    private static ChoiceParameter createParameter() throws Exception {
+        return new ChoiceParameter("param000", "description", RANDOM_NAME,
+                new GroovyScript(new SecureGroovyScript("return ['a']", true, null), null),
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, false, 1);
+    }
+
+    @Test
+    void testIndexFollowsJobChanges() throws Exception {
+        FreeStyleProject project = j.createFreeStyleProject("job");
+        assertNull(Utils.findProjectByParameterUUID(RANDOM_NAME));
+
+        project.addProperty(new ParametersDefinitionProperty(createParameter()));
+        assertEquals(project, Utils.findProjectByParameterUUID(RANDOM_NAME));
+
+        project.renameTo("renamed");
+        assertEquals("renamed", ParameterIndex.INSTANCE.getJobFullName(RANDOM_NAME));
+        assertEquals(project, Utils.findProjectByParameterUUID(RANDOM_NAME));
+
+        project.delete();
+        assertNull(ParameterIndex.INSTANCE.getJobFullName(RANDOM_NAME));
+        assertNull(Utils.findProjectByParameterUUID(RANDOM_NAME));
+    }
+
+    @Test
+    void testIndexFollowsMovedFolders() throws Exception {
+        MockFolder folder = j.createFolder("folder");
+        FreeStyleProject project = folder.createProject(FreeStyleProject.class, "job");
+        project.addProperty(new ParametersDefinitionProperty(createParameter()));
+        assertEquals("folder/job", ParameterIndex.INSTANCE.getJobFullName(RANDOM_NAME));
+
+        folder.renameTo("other");
+        assertEquals("other/job", ParameterIndex.INSTANCE.getJobFullName(RANDOM_NAME));
+        assertEquals(project, Utils.findProjectByParameterUUID(RANDOM_NAME));
+
+        folder.delete();
+        assertNull(ParameterIndex.INSTANCE.getJobFullName(RANDOM_NAME));
+    }
+
+    @Test
+    void testPipelineJobsAreResolved() throws Exception {
+        final String script = "return [jenkinsProject.fullName]";
+        ScriptApproval.get().preapprove(script, GroovyLanguage.get());
+        ChoiceParameter parameter = new ChoiceParameter("param000", "description", RANDOM_NAME,
+                new GroovyScript(new SecureGroovyScript(script, false, null), null),
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, false, 1);
+        MockFolder folder = j.createFolder("folder");
+        WorkflowJob job = folder.createProject(WorkflowJob.class, "pipeline");
+        job.addProperty(new ParametersDefinitionProperty(parameter));
+
+        assertEquals(job, Utils.findJobByParameterUUID(RANDOM_NAME));
+        assertNull(Utils.findProjectByParameterUUID(RANDOM_NAME));
+        assertEquals(Collections.singletonMap("folder/pipeline", "folder/pipeline"),
+                parameter.getChoices(Collections.emptyMap()));
+
+        // the resolved job is cached, and still valid after a rename
+        job.renameTo("renamed");
+        assertEquals(Collections.singletonMap("folder/renamed", "folder/renamed"),
+                parameter.getChoices(Collections.emptyMap()));
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.biouno.unochoice.issue_performance;
+
+import org.biouno.unochoice.CascadeChoiceParameter;
+import org.biouno.unochoice.ChoiceParameter;
+import org.biouno.unochoice.model.GroovyScript;
+import org.biouno.unochoice.util.ScriptResultCache;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+import org.jenkinsci.plugins.scriptsecurity.scripts.languages.GroovyLanguage;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import hudson.model.FreeStyleProject;
+import hudson.model.ParametersDefinitionProperty;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that the root level parameters of the build form are evaluated concurrently.
+ */
+@WithJenkins
+class TestPreEvaluation {
+
+    private static final long SLEEP = 1500L;
+
+    @Test
+    void testRootParametersAreEvaluatedConcurrently(JenkinsRule j) throws Exception {
+        ScriptResultCache.INSTANCE.clear();
+        ChoiceParameter a = createParameter("A");
+        ChoiceParameter b = createParameter("B");
+        ChoiceParameter c = createParameter("C");
+        FreeStyleProject project = j.createFreeStyleProject();
+        project.addProperty(new ParametersDefinitionProperty(a, b, c));
+
+        long start = System.currentTimeMillis();
+        List<Object> rendered = j.executeOnServer(() -> List.of(a.getInitialChoices(), b.getInitialChoices(),
+                c.getInitialChoices()));
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals(List.of(Collections.singletonMap("A", "A"), Collections.singletonMap("B", "B"),
+                Collections.singletonMap("C", "C")), rendered);
+        assertTrue(elapsed < 3 * SLEEP, "Parameters were evaluated one after the other: " + elapsed + " ms");
+    }
+
+    @Test
+    void testCascadeParametersWithoutReferencesAreRoots(JenkinsRule j) throws Exception {
+        ScriptResultCache.INSTANCE.clear();
+        ChoiceParameter a = createParameter("A");
+        String script = "sleep(" + SLEEP + "); return ['D']";
+        ScriptApproval.get().preapprove(script, GroovyLanguage.get());
+        CascadeChoiceParameter d = new CascadeChoiceParameter("D", "description", "random-D",
+                new GroovyScript(new SecureGroovyScript(script, false, null), null),
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, "", false, 1);
+        FreeStyleProject project = j.createFreeStyleProject();
+        project.addProperty(new ParametersDefinitionProperty(a, d));
+
+        long start = System.currentTimeMillis();
+        List<Object> rendered = j.executeOnServer(() -> List.of(a.getInitialChoices(), d.getInitialChoices()));
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals(List.of(Collections.singletonMap("A", "A"), Collections.singletonMap("D", "D")), rendered);
+        assertTrue(elapsed < 2 * SLEEP, "Parameters were evaluated one after the other: " + elapsed + " ms");
+    }
+
+    private static ChoiceParameter createParameter(String name) {
+        String script = "sleep(" + SLEEP + "); return ['" + name + "']";
+        ScriptApproval.get().preapprove(script, GroovyLanguage.get());
+        return new ChoiceParameter(name, "description", "random-" + name,
+                new GroovyScript(new SecureGroovyScript(script, false, null), null),
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, false, 1);
+    }
+}
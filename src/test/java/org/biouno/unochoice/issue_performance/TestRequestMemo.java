@@ -0,0 +1,84 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.biouno.unochoice.issue_performance;
+
+import hudson.model.FreeStyleProject;
+import hudson.model.ParametersDefinitionProperty;
+import org.biouno.unochoice.ChoiceParameter;
+import org.biouno.unochoice.util.ScriptResultCache;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+import org.jenkinsci.plugins.scriptsecurity.scripts.languages.GroovyLanguage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that a script is evaluated only once per request, however many times its choices are read.
+ */
+@WithJenkins
+class TestRequestMemo {
+
+    // reads jenkinsProject, so that the evaluation is not shared across jobs
+    private static final String SCRIPT = "return [jenkinsProject.name, 'b', 'c']";
+
+    private JenkinsRule j;
+
+    @BeforeEach
+    void setUp(JenkinsRule j) {
+        this.j = j;
+        ScriptApproval.get().preapprove(SCRIPT, GroovyLanguage.get());
+        ScriptResultCache.INSTANCE.clear();
+    }
+
+    @Test
+    void testScriptIsEvaluatedOncePerRequest() throws Exception {
+        FreeStyleProject project = j.createFreeStyleProject("memo");
+        CountingGroovyScript script = new CountingGroovyScript(new SecureGroovyScript(SCRIPT, false, null), null);
+        ChoiceParameter parameter = new ChoiceParameter("param", "description", "memo-random-name", script,
+                ChoiceParameter.PARAMETER_TYPE_CHECK_BOX, false, 1);
+        project.addProperty(new ParametersDefinitionProperty(parameter));
+
+        int itemCount = j.executeOnServer(() -> {
+            parameter.getChoices();
+            parameter.getChoices();
+            parameter.getChoicesAsString();
+            return parameter.getItemCount() + parameter.getVisibleItemCount();
+        });
+        assertEquals(6, itemCount);
+        assertEquals(1, script.getCount());
+
+        // each request evaluates the script again
+        j.executeOnServer(parameter::getChoices);
+        assertEquals(2, script.getCount());
+
+        // and so does every call outside of a request
+        parameter.getChoices();
+        parameter.getChoices();
+        assertEquals(4, script.getCount());
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.issue_performance;
+
+import org.biouno.unochoice.AbstractUnoChoiceParameter;
+import org.biouno.unochoice.ChoiceParameter;
+import org.biouno.unochoice.model.GroovyScript;
+import org.biouno.unochoice.util.ScriptExecutor;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+import org.jenkinsci.plugins.scriptsecurity.scripts.languages.GroovyLanguage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the timeout of script evaluations.
+ */
+@WithJenkins
+class TestScriptEvaluationTimeout {
+
+    private static final String SLOW_SCRIPT = "Thread.sleep(30000); return ['SLOW']";
+    private static final String FALLBACK_SCRIPT = "return ['FALLBACK']";
+
+    @BeforeEach
+    void setUp(JenkinsRule j) {
+        ScriptApproval.get().preapprove(SLOW_SCRIPT, GroovyLanguage.get());
+        ScriptApproval.get().preapprove(FALLBACK_SCRIPT, GroovyLanguage.get());
+    }
+
+    @Test
+    void testFallbackIsUsedWhenTimeoutExpires() {
+        ChoiceParameter parameter = newParameter(new SecureGroovyScript(FALLBACK_SCRIPT, false, null));
+        parameter.setEvaluationTimeout(1);
+
+        long start = System.currentTimeMillis();
+        Map<Object, Object> choices = parameter.getChoices(Collections.emptyMap());
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals(Collections.singletonMap("FALLBACK", "FALLBACK"), choices);
+        assertTrue(elapsed < 20000, "Evaluation was not interrupted, took " + elapsed + "ms");
+    }
+
+    @Test
+    void testEmptyResultWhenTimeoutExpiresWithoutFallback() {
+        ChoiceParameter parameter = newParameter(null);
+        parameter.setEvaluationTimeout(1);
+
+        assertEquals(Collections.emptyMap(), parameter.getChoices(Collections.emptyMap()));
+    }
+
+    @Test
+    void testTimeoutAppliesOnTheExecutorThreads() throws Exception {
+        ChoiceParameter parameter = newParameter(new SecureGroovyScript(FALLBACK_SCRIPT, false, null));
+        parameter.setEvaluationTimeout(1);
+
+        // like a background refresh, the script is called inline on the thread of the executor
+        Future<Map<Object, Object>> choices = ScriptExecutor.INSTANCE.submitDetached(
+                () -> parameter.getChoices(Collections.emptyMap()));
+
+        assertEquals(Collections.singletonMap("FALLBACK", "FALLBACK"), choices.get(20, TimeUnit.SECONDS));
+    }
+
+    private static ChoiceParameter newParameter(SecureGroovyScript fallbackScript) {
+        return new ChoiceParameter(
+                "param",
+                "description",
+                "random-name",
+                new GroovyScript(new SecureGroovyScript(SLOW_SCRIPT, false, null), fallbackScript),
+                AbstractUnoChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT,
+                false,
+                1);
+    }
+}
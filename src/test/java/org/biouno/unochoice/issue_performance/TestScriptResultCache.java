@@ -0,0 +1,139 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.biouno.unochoice.issue_performance;
+
+import hudson.model.User;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import org.biouno.unochoice.ChoiceParameter;
+import org.biouno.unochoice.model.GroovyScript;
+import org.biouno.unochoice.util.ScriptResultCache;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+import org.jenkinsci.plugins.scriptsecurity.scripts.languages.GroovyLanguage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Tests for the input-keyed cache of script results.
+ */
+@WithJenkins
+class TestScriptResultCache {
+
+    // returns a different value on every evaluation
+    private static final String SCRIPT = "return [(a + '-' + System.nanoTime())]";
+
+    @BeforeEach
+    void setUp(JenkinsRule j) {
+        ScriptApproval.get().preapprove(SCRIPT, GroovyLanguage.get());
+        ScriptResultCache.INSTANCE.clear();
+    }
+
+    private static ChoiceParameter createParameter(Integer choicesCacheTtl) throws Exception {
+        ChoiceParameter parameter = new ChoiceParameter("param000", "description", "some-random-name",
+                new GroovyScript(new SecureGroovyScript(SCRIPT, false, null), null),
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, false, 1);
+        parameter.setChoicesCacheTtl(choicesCacheTtl);
+        return parameter;
+    }
+
+    @Test
+    void testResultsAreNotCachedByDefault() throws Exception {
+        ChoiceParameter parameter = createParameter(null);
+        Map<Object, Object> parameters = Collections.singletonMap("a", "1");
+        assertNotEquals(parameter.getChoices(parameters), parameter.getChoices(parameters));
+        assertEquals(0, ScriptResultCache.INSTANCE.size());
+    }
+
+    @Test
+    void testResultsAreCachedPerInput() throws Exception {
+        ChoiceParameter parameter = createParameter(3600);
+        Map<Object, Object> first = parameter.getChoices(Collections.singletonMap("a", "1"));
+        Map<Object, Object> second = parameter.getChoices(Collections.singletonMap("a", "2"));
+        assertNotEquals(first, second);
+        assertEquals(first, parameter.getChoices(Collections.singletonMap("a", "1")));
+        assertEquals(second, parameter.getChoices(Collections.singletonMap("a", "2")));
+        assertEquals(2, ScriptResultCache.INSTANCE.size());
+    }
+
+    @Test
+    void testResultsAreCachedPerUser(JenkinsRule j) throws Exception {
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        CountingGroovyScript script = new CountingGroovyScript(new SecureGroovyScript("return ['value']", true, null),
+                null);
+        ChoiceParameter parameter = new ChoiceParameter("param000", "description", "per-user-random-name", script,
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, false, 1);
+        parameter.setChoicesCacheTtl(3600);
+
+        for (String user : Arrays.asList("alice", "bob", "alice", "bob")) {
+            try (ACLContext ignored = ACL.as2(User.getById(user, true).impersonate2())) {
+                parameter.getChoices(Collections.singletonMap("a", "1"));
+            }
+        }
+        // the script may read data that only some users can see
+        assertEquals(2, script.getCount());
+    }
+
+    @Test
+    void testStaleResultIsServedWhileRefreshing() throws Exception {
+        ChoiceParameter parameter = createParameter(1);
+        Map<Object, Object> parameters = Collections.singletonMap("a", "1");
+        Map<Object, Object> first = parameter.getChoices(parameters);
+        Thread.sleep(1500L);
+        // expired, the stale value is returned and a refresh is started in the background
+        assertEquals(first, parameter.getChoices(parameters));
+        Map<Object, Object> refreshed = first;
+        for (int i = 0; i < 50 && refreshed.equals(first); i++) {
+            Thread.sleep(100L);
+            refreshed = parameter.getChoices(parameters);
+        }
+        assertNotEquals(first, refreshed);
+    }
+
+    @Test
+    void testFallbackIsNotCached() throws Exception {
+        CountingGroovyScript script = new CountingGroovyScript(new SecureGroovyScript("return ['value']", true, null),
+                new SecureGroovyScript("return ['fallback']", true, null));
+        ChoiceParameter parameter = new ChoiceParameter("param000", "description", "fallback-random-name", script,
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, false, 1);
+        parameter.setChoicesCacheTtl(3600);
+        Map<Object, Object> parameters = Collections.singletonMap("a", "1");
+
+        script.failNext(1);
+        assertEquals(Collections.singletonMap("fallback", "fallback"), parameter.getChoices(parameters));
+        // the script is run again by the next read, and only its own value is cached
+        assertEquals(Collections.singletonMap("value", "value"), parameter.getChoices(parameters));
+        assertEquals(Collections.singletonMap("value", "value"), parameter.getChoices(parameters));
+        assertEquals(2, script.getCount());
+    }
+}
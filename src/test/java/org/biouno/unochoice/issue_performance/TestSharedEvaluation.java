@@ -0,0 +1,95 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.issue_performance;
+
+import hudson.model.FreeStyleProject;
+import hudson.model.ParametersDefinitionProperty;
+import hudson.model.StringParameterValue;
+import org.biouno.unochoice.ChoiceParameter;
+import org.biouno.unochoice.util.ScriptResultCache;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+import org.jenkinsci.plugins.scriptsecurity.scripts.languages.GroovyLanguage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that default values of parameters with the same script are shared across jobs, unless the script reads
+ * job specific variables.
+ */
+@WithJenkins
+class TestSharedEvaluation {
+
+    private static final String SCRIPT = "return ['shared']";
+    private static final String JOB_SCRIPT = "return [jenkinsProject.name]";
+
+    private JenkinsRule j;
+
+    @BeforeEach
+    void setUp(JenkinsRule j) {
+        this.j = j;
+        ScriptApproval.get().preapprove(SCRIPT, GroovyLanguage.get());
+        ScriptApproval.get().preapprove(JOB_SCRIPT, GroovyLanguage.get());
+        ScriptResultCache.INSTANCE.clear();
+    }
+
+    @Test
+    void testDefaultValueIsSharedAcrossJobs() throws Exception {
+        CountingGroovyScript script = createScript(SCRIPT);
+        ChoiceParameter first = createParameter(j.createFreeStyleProject("first"), script);
+        ChoiceParameter second = createParameter(j.createFreeStyleProject("second"), script);
+
+        assertEquals("shared", ((StringParameterValue) first.getDefaultParameterValue()).getValue());
+        assertEquals("shared", ((StringParameterValue) second.getDefaultParameterValue()).getValue());
+        assertEquals(1, script.getCount());
+    }
+
+    @Test
+    void testDefaultValueIsNotSharedWhenReadingJobVariables() throws Exception {
+        CountingGroovyScript script = createScript(JOB_SCRIPT);
+        ChoiceParameter first = createParameter(j.createFreeStyleProject("first"), script);
+        ChoiceParameter second = createParameter(j.createFreeStyleProject("second"), script);
+
+        assertEquals("first", ((StringParameterValue) first.getDefaultParameterValue()).getValue());
+        assertEquals("second", ((StringParameterValue) second.getDefaultParameterValue()).getValue());
+        assertEquals(2, script.getCount());
+    }
+
+    private static CountingGroovyScript createScript(String script) {
+        return new CountingGroovyScript(new SecureGroovyScript(script, false, null), null);
+    }
+
+    private static ChoiceParameter createParameter(FreeStyleProject project, CountingGroovyScript script)
+            throws Exception {
+        ChoiceParameter parameter = new ChoiceParameter("param", "description", project.getName() + "-random-name",
+                script, ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, false, 1);
+        project.addProperty(new ParametersDefinitionProperty(parameter));
+        return parameter;
+    }
+}
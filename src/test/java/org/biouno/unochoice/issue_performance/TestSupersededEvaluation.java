@@ -0,0 +1,106 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.issue_performance;
+
+import org.biouno.unochoice.ChoiceParameter;
+import org.biouno.unochoice.model.GroovyScript;
+import org.biouno.unochoice.util.Cancellation;
+import org.biouno.unochoice.util.InFlightEvaluations;
+import org.biouno.unochoice.util.ScriptExecutor;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.groovy.SecureGroovyScript;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+import org.jenkinsci.plugins.scriptsecurity.scripts.languages.GroovyLanguage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that evaluations superseded by a newer request of the same page are cancelled.
+ */
+@WithJenkins
+class TestSupersededEvaluation {
+
+    private static final String SCRIPT = "Thread.sleep(30000L); return ['late']";
+
+    @BeforeEach
+    void setUp(JenkinsRule j) {
+        ScriptApproval.get().preapprove(SCRIPT, GroovyLanguage.get());
+    }
+
+    @Test
+    void testNewerRequestCancelsOlderEvaluation() throws Exception {
+        InFlightEvaluations evaluations = InFlightEvaluations.INSTANCE;
+        Cancellation first = evaluations.start("page", 1);
+        assertNotNull(first);
+        CompletableFuture<Object> evaluation = CompletableFuture.supplyAsync(() -> {
+            try (Cancellation.Scope scope = first.enter()) {
+                return ScriptExecutor.INSTANCE.call(() -> {
+                    Thread.sleep(30000L);
+                    return "late";
+                }, 60);
+            } catch (Exception e) {
+                return e;
+            }
+        });
+
+        Cancellation second = evaluations.start("page", 2);
+        assertNotNull(second);
+        assertInstanceOf(CancellationException.class, evaluation.get(10, TimeUnit.SECONDS));
+        assertTrue(first.isCancelled());
+        // a late request of the page is superseded already
+        assertNull(evaluations.start("page", 1));
+        evaluations.finish("page", second);
+    }
+
+    @Test
+    void testCancelledScriptReturnsNoChoices() throws Exception {
+        ChoiceParameter parameter = new ChoiceParameter("param000", "description", "some-random-name",
+                new GroovyScript(new SecureGroovyScript(SCRIPT, false, null), null),
+                ChoiceParameter.PARAMETER_TYPE_SINGLE_SELECT, false, 1);
+        Cancellation cancellation = new Cancellation();
+        CompletableFuture<Map<Object, Object>> choices = CompletableFuture.supplyAsync(() -> {
+            try (Cancellation.Scope scope = cancellation.enter()) {
+                return parameter.getChoices(Collections.emptyMap());
+            }
+        });
+        Thread.sleep(500L);
+        long start = System.nanoTime();
+        cancellation.cancel();
+        assertTrue(choices.get(10, TimeUnit.SECONDS).isEmpty());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+    }
+}
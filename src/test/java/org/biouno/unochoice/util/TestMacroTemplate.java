@@ -0,0 +1,57 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2026 Ioannis Moutsatsos, Bruno P. Kinoshita
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.biouno.unochoice.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import hudson.Util;
+
+/**
+ * Test that {@link MacroTemplate} expands macros as {@link Util#replaceMacro(String, Map)}.
+ */
+class TestMacroTemplate {
+
+    @Test
+    void testExpandsAsReplaceMacro() {
+        Map<String, String> variables = new HashMap<>();
+        variables.put("A", "1");
+        variables.put("B_2", "two");
+        variables.put("x.y", "dotted");
+        variables.put("DOLLAR", "$A");
+
+        String[] texts = {
+            null, "", "plain", "$A", "${A}", "pre-$A-post", "$A$B_2", "${x.y}", "$x.y", "$UNKNOWN and ${UNKNOWN}",
+            "$$A", "$$", "$", "a$", "${A", "$DOLLAR", "${}", "$A${B_2}$"
+        };
+        for (String text : texts) {
+            assertEquals(Util.replaceMacro(text, variables), MacroTemplate.compile(text).expand(variables), text);
+        }
+    }
+}